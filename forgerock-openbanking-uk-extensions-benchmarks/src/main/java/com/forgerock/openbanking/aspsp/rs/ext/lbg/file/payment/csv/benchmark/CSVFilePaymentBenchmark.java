@@ -0,0 +1,145 @@
+/**
+ * Copyright 2019 ForgeRock AS.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.benchmark;
+
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.exception.CSVErrorException;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.exception.CSVErrorType;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory.CSVFilePaymentType;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory.CSVParserFactory;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory.CSVValidationFactory;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.generator.CSVFileGenerator;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVFilePayment;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.parser.CSVParserLimits;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.parser.CSVParserPool;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation.CSVFileValidator;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation.CSVValidationReport;
+import com.forgerock.openbanking.common.model.openbanking.forgerock.filepayment.v3_0.FRFilePayment;
+import com.forgerock.openbanking.exceptions.OBErrorException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse, validate and convert payment files from {@link CSVFileGenerator}:<br/>
+ * <li>parseString and parseBytes: {@link CSVParserFactory} parsers from a string and from the UTF-8 bytes, without limits</li>
+ * <li>validate: {@link CSVValidationFactory} validation, the files beyond 25 credit rows measure the rejection</li>
+ * <li>validateAll: validation collecting the errors, the files beyond 25 credit rows go on through the credit row rules</li>
+ * <li>toFRFilePaymentList and toCsvString: conversions of the parsed file</li>
+ * <li>toFRFilePaymentBatches: conversion consumed by batches of 1000, never holding the whole list</li>
+ * Run with {@link CSVBenchmarks} to report the allocation rate too.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CSVFilePaymentBenchmark {
+    private static final int MAX_ERRORS = 10;
+
+    @Param({"UK_LBG_FPS_BATCH_V10", "UK_LBG_BACS_BULK_V10"})
+    private CSVFilePaymentType type;
+
+    @Param({"25", "1000", "100000", "1000000"})
+    private int rows;
+
+    private String content;
+    private byte[] bytes;
+    private CSVFilePayment file;
+    private CSVParserPool pool;
+    private CSVFileValidator validator;
+
+    @Setup
+    public void setup() throws IOException, OBErrorException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        CSVFileGenerator.builder().type(type).rows(rows).seed(rows).build().write(outputStream);
+        bytes = outputStream.toByteArray();
+        content = new String(bytes, StandardCharsets.UTF_8);
+        file = CSVParserFactory.parse(type, content, CSVParserLimits.NONE).parse().getCsvFilePayment();
+        pool = CSVParserPool.builder().type(type).limits(CSVParserLimits.NONE).build();
+        validator = CSVValidationFactory.getValidator(type);
+    }
+
+    @Benchmark
+    public CSVFilePayment parseString() throws OBErrorException {
+        return CSVParserFactory.parse(type, content, CSVParserLimits.NONE).parse().getCsvFilePayment();
+    }
+
+    @Benchmark
+    public CSVFilePayment parseBytes() throws OBErrorException {
+        return CSVParserFactory.parse(type, bytes, CSVParserLimits.NONE).parse().getCsvFilePayment();
+    }
+
+    @Benchmark
+    public CSVFilePayment parsePooledString() throws OBErrorException {
+        return pool.parse(content);
+    }
+
+    @Benchmark
+    public CSVFilePayment parsePooledBytes() throws OBErrorException {
+        return pool.parse(bytes);
+    }
+
+    @Benchmark
+    public CSVErrorType validate() throws OBErrorException {
+        try {
+            CSVValidationFactory.getValidationServiceInstance(file).validate();
+            return null;
+        } catch (CSVErrorException e) {
+            return e.getCsvErrorType();
+        }
+    }
+
+    @Benchmark
+    public CSVValidationReport validateAll() throws OBErrorException {
+        return validator.validateAll(file, MAX_ERRORS);
+    }
+
+    @Benchmark
+    public List<FRFilePayment> toFRFilePaymentList() {
+        return file.toFRFilePaymentList();
+    }
+
+    @Benchmark
+    public void toFRFilePaymentBatches(Blackhole blackhole) {
+        file.toFRFilePayments(1000, blackhole::consume);
+    }
+
+    @Benchmark
+    public String toCsvString() {
+        return file.toString();
+    }
+}
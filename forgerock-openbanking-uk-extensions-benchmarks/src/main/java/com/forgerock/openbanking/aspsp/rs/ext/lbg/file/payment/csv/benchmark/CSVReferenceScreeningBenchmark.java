@@ -0,0 +1,102 @@
+/**
+ * Copyright 2019 ForgeRock AS.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.benchmark;
+
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation.CSVReferenceScreener;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation.CSVValidation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * CONTRA reference screening of a batch of credit row references:<br/>
+ * <li>regexCompiledPerRow: the pattern compiled for every row, as the validation used to</li>
+ * <li>regexPrecompiled: the pattern compiled once</li>
+ * <li>screener: {@link CSVReferenceScreener}</li>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CSVReferenceScreeningBenchmark {
+    private static final String[] SAMPLES = {"INVOICE 12345", "SALARY JUNE", "Contractor fees", "REF-CONTRA-1",
+            "payment for contra account", "END TO END REFERENCE", "contra", "RENT 2020/02"};
+    private String[] references;
+    private Pattern pattern;
+    private CSVReferenceScreener screener;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        references = new String[1000];
+        for (int i = 0; i < references.length; i++) {
+            references[i] = SAMPLES[random.nextInt(SAMPLES.length)] + " " + i;
+        }
+        pattern = Pattern.compile(CSVValidation.REF_PATTERN, Pattern.CASE_INSENSITIVE);
+        screener = new CSVReferenceScreener(CSVValidation.REF_WORD_TO_FIND);
+    }
+
+    @Benchmark
+    public int regexCompiledPerRow() {
+        int founds = 0;
+        for (String reference : references) {
+            if (Pattern.compile(CSVValidation.REF_PATTERN, Pattern.CASE_INSENSITIVE).matcher(reference).find()) {
+                founds++;
+            }
+        }
+        return founds;
+    }
+
+    @Benchmark
+    public int regexPrecompiled() {
+        int founds = 0;
+        for (String reference : references) {
+            if (pattern.matcher(reference).find()) {
+                founds++;
+            }
+        }
+        return founds;
+    }
+
+    @Benchmark
+    public int screener() {
+        int founds = 0;
+        for (String reference : references) {
+            if (screener.find(reference)) {
+                founds++;
+            }
+        }
+        return founds;
+    }
+}
@@ -0,0 +1,311 @@
+/**
+ * Copyright 2019 ForgeRock AS.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.async;
+
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.exception.CSVErrorException;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory.CSVFilePaymentFactory;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory.CSVFilePaymentType;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory.CSVFileTypeRegistry;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory.CSVValidationFactory;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVCreditIndicatorRow;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVDebitIndicatorSection;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVFilePayment;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVHeaderIndicatorSection;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.parser.CSVFeedParser;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.parser.CSVParserImpl;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.parser.CSVParserLimits;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.parser.CSVRecordListener;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation.CSVFileValidator;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation.CSVValidationError;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation.CSVValidationReport;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation.CSVValidationService;
+import com.forgerock.openbanking.exceptions.OBErrorException;
+import com.google.common.base.Preconditions;
+import lombok.Builder;
+
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Parse a payment file published by chunks, e.g. a request body, and publish its credit rows as they are parsed:<br/>
+ * <li>A chunk is requested only once the rows parsed before are delivered and more rows are requested,
+ * so the content is read no faster than the subscriber consumes the rows</li>
+ * <li>The rows are validated as they are parsed, see {@link CSVFileValidator#validateAllByRow(CSVFilePayment, int)},
+ * at the end of the content the {@link #getValidationReport()} is completed, then the subscriber completed,
+ * or failed with the {@link CSVErrorException} of the first validation error</li>
+ * <li>A parsing error cancels the content and fails the subscriber, the rows not delivered yet are dropped</li>
+ * The rows are not kept once delivered, neither by the parser nor for the validation, so the memory is bounded by the rows
+ * of a chunk and the errors of the report, not by the content.
+ * A processor parses a single content for a single subscriber.
+ */
+public final class CSVCreditRowProcessor implements Flow.Processor<ByteBuffer, CSVCreditIndicatorRow> {
+    private static final int DEFAULT_MAX_ERRORS = 10;
+
+    private final CSVFeedParser feedParser;
+    private final CSVFileValidator validator;
+    private final int maxErrors;
+    // header and debit sections parsed, without the credit rows
+    private final CSVFilePayment sections;
+    // started with the first credit row, confined to the parsing thread
+    private CSVValidationService.RowsValidation rowsValidation;
+    private final CompletableFuture<CSVValidationReport> validationReport = new CompletableFuture<>();
+    // rows parsed, not delivered yet
+    private final Queue<CSVCreditIndicatorRow> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicLong requested = new AtomicLong();
+    // serializes the signals to the subscriber, see drain()
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private volatile Flow.Subscriber<? super CSVCreditIndicatorRow> subscriber;
+    private volatile Flow.Subscription upstream;
+    private volatile boolean chunkRequested;
+    private volatile boolean done;
+    private volatile Throwable failure;
+    private volatile boolean cancelled;
+    private boolean terminated;
+
+    /**
+     * @param type      payment file type
+     * @param limits    limits of the parsing, {@link CSVParserLimits#DEFAULT} by default
+     * @param clock     clock of the processing day of the validation, the system clock of the shared validator by default
+     * @param maxErrors max number of errors of the validation report, 10 by default
+     * @throws OBErrorException type not supported
+     */
+    @Builder
+    private CSVCreditRowProcessor(final CSVFilePaymentType type, final CSVParserLimits limits, final Clock clock,
+                                  final int maxErrors) throws OBErrorException {
+        Preconditions.checkNotNull(type, "Cannot have a null type");
+        Preconditions.checkArgument(maxErrors >= 0, "maxErrors must not be negative: %s", maxErrors);
+        CSVParserImpl parser = CSVFileTypeRegistry.getProvider(type).createParser();
+        parser.setLimits(limits != null ? limits : CSVParserLimits.DEFAULT);
+        parser.setCreditRowsRetained(false);
+        this.feedParser = new CSVFeedParser(parser, new ValidatedRows());
+        this.validator = clock != null ? CSVValidationFactory.getValidator(type, clock) : CSVValidationFactory.getValidator(type);
+        this.maxErrors = maxErrors > 0 ? maxErrors : DEFAULT_MAX_ERRORS;
+        this.sections = CSVFilePaymentFactory.create(type);
+    }
+
+    /**
+     * @return the future validation report, completed at the end of the content before the subscriber,
+     * or exceptionally on a parsing error
+     */
+    public CompletableFuture<CSVValidationReport> getValidationReport() {
+        return validationReport;
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super CSVCreditIndicatorRow> subscriber) {
+        Preconditions.checkNotNull(subscriber, "Cannot have a null subscriber");
+        synchronized (this) {
+            if (this.subscriber != null) {
+                subscriber.onSubscribe(new Flow.Subscription() {
+                    @Override
+                    public void request(final long n) {
+                    }
+
+                    @Override
+                    public void cancel() {
+                    }
+                });
+                subscriber.onError(new IllegalStateException("The credit rows have a subscriber already"));
+                return;
+            }
+            this.subscriber = subscriber;
+        }
+        subscriber.onSubscribe(new RowsSubscription());
+        drain();
+    }
+
+    @Override
+    public void onSubscribe(final Flow.Subscription subscription) {
+        if (upstream != null || done) {
+            subscription.cancel();
+            return;
+        }
+        upstream = subscription;
+        drain();
+    }
+
+    @Override
+    public void onNext(final ByteBuffer chunk) {
+        if (done) {
+            return;
+        }
+        try {
+            feedParser.feed(chunk);
+        } catch (RuntimeException e) {
+            cancelUpstream();
+            fail(e);
+            return;
+        }
+        chunkRequested = false;
+        drain();
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+        if (!done) {
+            fail(throwable);
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        if (done) {
+            return;
+        }
+        CSVValidationReport report;
+        try {
+            feedParser.complete();
+            report = rowsValidation().complete();
+        } catch (OBErrorException | RuntimeException e) {
+            fail(e);
+            return;
+        }
+        validationReport.complete(report);
+        if (!report.isValid()) {
+            CSVValidationError error = report.getErrors().get(0);
+            failure = new CSVErrorException(error.getErrorType(), error.getArgs());
+        }
+        done = true;
+        drain();
+    }
+
+    private void cancelUpstream() {
+        Flow.Subscription subscription = upstream;
+        if (subscription != null) {
+            subscription.cancel();
+        }
+    }
+
+    private void fail(final Throwable throwable) {
+        failure = throwable;
+        done = true;
+        validationReport.completeExceptionally(throwable);
+        drain();
+    }
+
+    /**
+     * Deliver the rows requested, the terminal signal, and request the next chunk when all the rows are delivered.<br/>
+     * Run by a single thread at a time, the calls meanwhile are run by the thread in the loop.
+     */
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            Flow.Subscriber<? super CSVCreditIndicatorRow> downstream = subscriber;
+            if (downstream != null && !terminated) {
+                if (cancelled) {
+                    pending.clear();
+                } else if (done && failure != null) {
+                    pending.clear();
+                    terminated = true;
+                    downstream.onError(failure);
+                } else {
+                    deliver(downstream);
+                    if (pending.isEmpty()) {
+                        if (done) {
+                            terminated = true;
+                            downstream.onComplete();
+                        } else if (requested.get() > 0 && !chunkRequested && upstream != null) {
+                            chunkRequested = true;
+                            upstream.request(1);
+                        }
+                    }
+                }
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void deliver(final Flow.Subscriber<? super CSVCreditIndicatorRow> downstream) {
+        long demand = requested.get();
+        long delivered = 0;
+        while (delivered != demand && !cancelled) {
+            CSVCreditIndicatorRow row = pending.poll();
+            if (row == null) {
+                break;
+            }
+            downstream.onNext(row);
+            delivered++;
+        }
+        if (delivered != 0 && demand != Long.MAX_VALUE) {
+            requested.addAndGet(-delivered);
+        }
+    }
+
+    private CSVValidationService.RowsValidation rowsValidation() {
+        if (rowsValidation == null) {
+            rowsValidation = validator.validateAllByRow(sections, maxErrors);
+        }
+        return rowsValidation;
+    }
+
+    private final class ValidatedRows implements CSVRecordListener {
+        @Override
+        public void onHeaderIndicatorSection(final CSVHeaderIndicatorSection section) {
+            sections.setHeaderIndicator(section);
+        }
+
+        @Override
+        public void onDebitIndicatorSection(final CSVDebitIndicatorSection section) {
+            sections.setDebitIndicator(section);
+        }
+
+        @Override
+        public void onCreditIndicatorRow(final CSVCreditIndicatorRow row) {
+            rowsValidation().check(row);
+            pending.add(row);
+        }
+    }
+
+    private final class RowsSubscription implements Flow.Subscription {
+        @Override
+        public void request(final long n) {
+            if (n <= 0) {
+                cancelUpstream();
+                fail(new IllegalArgumentException("The number of rows requested must be positive: " + n));
+                return;
+            }
+            requested.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            done = true;
+            validationReport.cancel(false);
+            cancelUpstream();
+            drain();
+        }
+    }
+}
@@ -0,0 +1,252 @@
+/**
+ * Copyright 2019 ForgeRock AS.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.async;
+
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory.CSVFilePaymentType;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory.CSVFileTypeRegistry;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory.CSVParserFactory;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory.CSVValidationFactory;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVFilePayment;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.parser.CSVParserLimits;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation.CSVFileValidator;
+import com.forgerock.openbanking.common.model.openbanking.forgerock.filepayment.v3_0.FRFilePayment;
+import com.google.common.base.Preconditions;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parse, validate and convert the payment files asynchronously:<br/>
+ * <li>Each content is processed by a task of the executor, on a virtual thread by default when the JVM has them
+ * (Java 21+), on a new daemon thread from a cached pool otherwise</li>
+ * <li>The future completes with the {@link CSVValidatedFilePayment}, or exceptionally with the parsing or validation
+ * error, e.g. a {@link com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.exception.CSVErrorException}</li>
+ * <li>Cancelling the future, or the timeout elapsed, interrupts the task: the stream is not read further and the next
+ * step is not started</li>
+ */
+@Slf4j
+public final class CSVFilePaymentAsyncProcessor {
+    private static final int CONVERSION_BATCH_SIZE = 1000;
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final Executor executor;
+    private final Duration timeout;
+    private final CSVParserLimits limits;
+    // validators of the clock built once, empty for the shared validators of the system clock
+    private final Map<CSVFilePaymentType, CSVFileValidator> validators;
+
+    /**
+     * @param executor executor running the tasks, a virtual thread per task by default, see {@link #defaultExecutor()}
+     * @param timeout  max duration of a task, none by default
+     * @param limits   limits of the parsing, {@link CSVParserLimits#DEFAULT} by default
+     * @param clock    clock of the processing day of the validation, the system clock of the shared validators by default,
+     *                 a validator per type is built once for another clock
+     */
+    @Builder
+    private CSVFilePaymentAsyncProcessor(final Executor executor, final Duration timeout, final CSVParserLimits limits, final Clock clock) {
+        Preconditions.checkArgument(timeout == null || !timeout.isNegative() && !timeout.isZero(), "timeout must be positive: %s", timeout);
+        this.executor = executor != null ? executor : defaultExecutor();
+        this.timeout = timeout;
+        this.limits = limits != null ? limits : CSVParserLimits.DEFAULT;
+        this.validators = clock != null ? CSVFileTypeRegistry.createValidators(clock) : Collections.emptyMap();
+    }
+
+    /**
+     * Process a content read from a stream, e.g. an upload, the stream is not closed
+     *
+     * @param type    payment file type
+     * @param content the file content
+     * @return the future payment file validated
+     */
+    public CompletableFuture<CSVValidatedFilePayment> process(final CSVFilePaymentType type, final InputStream content) {
+        return submit(task -> {
+            InputStream cancellable = new CancellableInputStream(content, task);
+            return validate(type, CSVParserFactory.parse(type, cancellable, limits).parse().getCsvFilePayment(), task);
+        });
+    }
+
+    /**
+     * Process a content from memory
+     *
+     * @param type    payment file type
+     * @param content the UTF-8 file content
+     * @return the future payment file validated
+     */
+    public CompletableFuture<CSVValidatedFilePayment> process(final CSVFilePaymentType type, final byte[] content) {
+        return submit(task -> validate(type, CSVParserFactory.parse(type, ByteBuffer.wrap(content), limits).parse().getCsvFilePayment(), task));
+    }
+
+    /**
+     * @return an executor starting a virtual thread per task when the JVM has them (Java 21+),
+     * a cached pool of daemon threads otherwise
+     */
+    public static Executor defaultExecutor() {
+        return DefaultExecutor.INSTANCE;
+    }
+
+    private CSVValidatedFilePayment validate(final CSVFilePaymentType type, final CSVFilePayment file, final Task<?> task) throws Exception {
+        task.checkNotDone();
+        CSVFileValidator validator = validators.get(type);
+        // the shared validator, or the type not supported error
+        (validator != null ? validator : CSVValidationFactory.getValidator(type)).validate(file);
+        task.checkNotDone();
+        List<FRFilePayment> filePayments = new ArrayList<>(file.getCreditIndicatorRows().size());
+        file.toFRFilePayments(CONVERSION_BATCH_SIZE, batch -> {
+            task.checkNotDone();
+            filePayments.addAll(batch);
+        });
+        return new CSVValidatedFilePayment(file, filePayments);
+    }
+
+    private <T> CompletableFuture<T> submit(final Step<T> step) {
+        Task<T> task = new Task<>(step);
+        if (timeout != null) {
+            task.future.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        }
+        task.future.whenComplete((result, failure) -> task.interrupt());
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.future.completeExceptionally(e);
+        }
+        return task.future;
+    }
+
+    @FunctionalInterface
+    private interface Step<T> {
+        T run(Task<T> task) throws Exception;
+    }
+
+    /**
+     * Task completing its future, interrupted when the future is completed by another thread
+     */
+    private static final class Task<T> implements Runnable {
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private final Step<T> step;
+        // thread running the step, guarded by this
+        private Thread runner;
+
+        private Task(final Step<T> step) {
+            this.step = step;
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (future.isDone()) {
+                    return;
+                }
+                runner = Thread.currentThread();
+            }
+            try {
+                future.complete(step.run(this));
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            } finally {
+                synchronized (this) {
+                    runner = null;
+                    // the interrupt of a completion by another thread is not kept for the next task of the thread
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        private synchronized void interrupt() {
+            if (runner != null && runner != Thread.currentThread()) {
+                runner.interrupt();
+            }
+        }
+
+        private void checkNotDone() {
+            if (future.isDone()) {
+                throw new CancellationException("The payment file processing has been completed already");
+            }
+        }
+    }
+
+    /**
+     * Stream not read further once the task is completed, by a cancellation or a timeout
+     */
+    private static final class CancellableInputStream extends FilterInputStream {
+        private final Task<?> task;
+
+        private CancellableInputStream(final InputStream in, final Task<?> task) {
+            super(in);
+            this.task = task;
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkNotDone();
+            return super.read();
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            checkNotDone();
+            return super.read(b, off, len);
+        }
+
+        private void checkNotDone() throws InterruptedIOException {
+            if (task.future.isDone()) {
+                throw new InterruptedIOException("The payment file processing has been completed already");
+            }
+        }
+    }
+
+    private static final class DefaultExecutor {
+        private static final Executor INSTANCE = create();
+
+        private static Executor create() {
+            try {
+                Executor executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+                log.debug("Payment files processed on virtual threads");
+                return executor;
+            } catch (ReflectiveOperationException e) {
+                log.debug("No virtual threads, payment files processed on platform threads");
+                return Executors.newCachedThreadPool(task -> {
+                    Thread thread = new Thread(task, "csv-file-payment-async-" + THREAD_COUNTER.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+        }
+    }
+}
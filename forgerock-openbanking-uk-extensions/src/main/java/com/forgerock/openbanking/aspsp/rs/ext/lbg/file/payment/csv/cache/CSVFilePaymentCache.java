@@ -0,0 +1,289 @@
+/**
+ * Copyright 2019 ForgeRock AS.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.cache;
+
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.exception.CSVErrorException;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory.CSVFilePaymentFactory;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory.CSVFilePaymentType;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory.CSVParserFactory;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory.CSVValidationFactory;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVCreditIndicatorRow;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVFilePayment;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation.CSVDates;
+import com.forgerock.openbanking.exceptions.OBErrorException;
+import com.google.common.base.Preconditions;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache of the parsed files and of their validation outcome, for the files uploaded again:<br/>
+ * <li>The entries are keyed by the SHA-256 of the content and the {@link CSVFilePaymentType}, plus the processing day for the validation outcomes</li>
+ * <li>The least recently used entries are evicted beyond the max entries or the max weight, the estimated size in bytes of a parsed file and 1 for an outcome</li>
+ * <li>The entries expire after the TTL, the validation outcomes at the latest at the end of their processing day</li>
+ * The cached files are never returned, the callers get a copy of their own. Two threads missing the same entry both parse the content.
+ */
+@Slf4j
+public class CSVFilePaymentCache {
+    private static final Duration DEFAULT_TTL = Duration.ofHours(1);
+    // estimated bytes retained by a parsed file besides the characters of its values: the file and its sections, then each credit row with its amount
+    private static final long FILE_BYTES = 512;
+    private static final long CREDIT_ROW_BYTES = 384;
+    // outcome of a file without validation errors
+    private static final Object VALID = new Object();
+
+    private final int maxEntries;
+    private final long maxWeight;
+    private final long ttlMillis;
+    private final Clock clock;
+    // access order, the eldest is the least recently used
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param maxEntries max number of entries
+     * @param maxWeight  max total weight of the entries
+     * @param ttl        time to live of the entries, 1 hour by default
+     * @param clock      clock of the expirations and of the processing day, the system clock by default
+     */
+    @Builder
+    private CSVFilePaymentCache(final int maxEntries, final long maxWeight, final Duration ttl, final Clock clock) {
+        Preconditions.checkArgument(maxEntries > 0, "maxEntries must be positive: %s", maxEntries);
+        Preconditions.checkArgument(maxWeight > 0, "maxWeight must be positive: %s", maxWeight);
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.ttlMillis = (ttl != null ? ttl : DEFAULT_TTL).toMillis();
+        this.clock = (clock != null ? clock : Clock.systemDefaultZone());
+    }
+
+    /**
+     * Parse the UTF-8 content, or get a copy of the file parsed from the same content
+     *
+     * @param type    {@link CSVFilePaymentType}
+     * @param content the file content
+     * @return the parsed file, owned by the caller
+     * @throws OBErrorException type not supported
+     */
+    public CSVFilePayment parse(CSVFilePaymentType type, byte[] content) throws OBErrorException {
+        return parse(type, ByteBuffer.wrap(content));
+    }
+
+    /**
+     * Parse the UTF-8 content, or get a copy of the file parsed from the same content
+     *
+     * @param type    {@link CSVFilePaymentType}
+     * @param content the file content from its position to its limit, not consumed
+     * @return the parsed file, owned by the caller
+     * @throws OBErrorException type not supported
+     */
+    public CSVFilePayment parse(CSVFilePaymentType type, ByteBuffer content) throws OBErrorException {
+        return copy(parse(new Key(hash(content), type, CSVDates.INVALID_DATE), content, true));
+    }
+
+    /**
+     * Validate the UTF-8 content for the processing day, or get the outcome of the same content validated the same day
+     *
+     * @param type    {@link CSVFilePaymentType}
+     * @param content the file content
+     * @throws CSVErrorException the parsing or the validation error
+     * @throws OBErrorException  type not supported
+     */
+    public void validate(CSVFilePaymentType type, byte[] content) throws OBErrorException {
+        validate(type, ByteBuffer.wrap(content));
+    }
+
+    /**
+     * Validate the UTF-8 content for the processing day, or get the outcome of the same content validated the same day
+     *
+     * @param type    {@link CSVFilePaymentType}
+     * @param content the file content from its position to its limit, not consumed
+     * @throws CSVErrorException the parsing or the validation error
+     * @throws OBErrorException  type not supported
+     */
+    public void validate(CSVFilePaymentType type, ByteBuffer content) throws OBErrorException {
+        byte[] hash = hash(content);
+        // the same instant for the key and the validation
+        Instant now = clock.instant();
+        LocalDate processingDay = LocalDate.ofInstant(now, clock.getZone());
+        Key key = new Key(hash, type, (int) processingDay.toEpochDay());
+        Object outcome = get(key, true);
+        if (outcome == null) {
+            outcome = VALID;
+            try {
+                // the parsed file isn't asked by the caller, its lookup isn't counted
+                CSVFilePayment file = parse(new Key(hash, type, CSVDates.INVALID_DATE), content, false);
+                CSVValidationFactory.getValidationServiceInstance(file, Clock.fixed(now, clock.getZone())).validate();
+            } catch (CSVErrorException e) {
+                outcome = e;
+            }
+            long endOfDay = processingDay.plusDays(1).atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+            put(key, outcome, 1, Math.min(now.toEpochMilli() + ttlMillis, endOfDay));
+        }
+        if (outcome instanceof CSVErrorException) {
+            CSVErrorException error = (CSVErrorException) outcome;
+            throw new CSVErrorException(error.getCsvErrorType(), error.getArgs());
+        }
+    }
+
+    /**
+     * @return the cache metrics
+     */
+    public synchronized Stats getStats() {
+        return new Stats(hits, misses, evictions, entries.size(), weight);
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+        weight = 0;
+    }
+
+    /**
+     * @param counted the lookup counted in the hits and misses
+     * @return the cached file, shared and not to be modified
+     */
+    private CSVFilePayment parse(Key key, ByteBuffer content, boolean counted) throws OBErrorException {
+        CSVFilePayment file = (CSVFilePayment) get(key, counted);
+        if (file == null) {
+            file = CSVParserFactory.parse(key.getType(), content.duplicate()).parse().getCsvFilePayment();
+            put(key, file, weigh(file, content.remaining()), clock.millis() + ttlMillis);
+        }
+        return file;
+    }
+
+    /**
+     * Estimated size of a parsed file, the characters of the values counted one byte each, as compact strings
+     *
+     * @param file          parsed file
+     * @param contentLength length of the content parsed
+     * @return the weight of the file
+     */
+    private static long weigh(CSVFilePayment file, long contentLength) {
+        List<CSVCreditIndicatorRow> rows = file.getCreditIndicatorRows();
+        return FILE_BYTES + (rows != null ? rows.size() : 0) * CREDIT_ROW_BYTES + contentLength;
+    }
+
+    private static CSVFilePayment copy(CSVFilePayment file) throws OBErrorException {
+        CSVFilePayment copy = CSVFilePaymentFactory.create(file.getFilePaymentType());
+        if (file.getHeaderIndicatorSection() != null) {
+            copy.setHeaderIndicator(file.getHeaderIndicatorSection().toBuilder().build());
+        }
+        if (file.getDebitIndicatorSection() != null) {
+            copy.setDebitIndicator(file.getDebitIndicatorSection().toBuilder().build());
+        }
+        if (file.getCreditIndicatorRows() != null) {
+            List<CSVCreditIndicatorRow> rows = new ArrayList<>(file.getCreditIndicatorRows().size());
+            for (CSVCreditIndicatorRow row : file.getCreditIndicatorRows()) {
+                rows.add(row.copy());
+            }
+            copy.setCreditIndicatorRows(rows);
+        }
+        return copy;
+    }
+
+    private synchronized Object get(Key key, boolean counted) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt <= clock.millis()) {
+            entries.remove(key);
+            weight -= entry.weight;
+            entry = null;
+        }
+        if (entry == null) {
+            if (counted) {
+                misses++;
+            }
+            return null;
+        }
+        if (counted) {
+            hits++;
+        }
+        return entry.value;
+    }
+
+    private synchronized void put(Key key, Object value, long entryWeight, long expiresAt) {
+        if (entryWeight > maxWeight) {
+            log.debug("Entry of weight {} beyond the max weight {}, not cached", entryWeight, maxWeight);
+            return;
+        }
+        Entry previous = entries.put(key, new Entry(value, entryWeight, expiresAt));
+        weight += entryWeight - (previous != null ? previous.weight : 0);
+        Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries || weight > maxWeight) {
+            weight -= eldest.next().getValue().weight;
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    private static byte[] hash(ByteBuffer content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(content.duplicate());
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Cache metrics, the hits and misses of the files and outcomes asked by the callers
+     */
+    @Value
+    public static class Stats {
+        long hits;
+        long misses;
+        long evictions;
+        int entries;
+        long weight;
+    }
+
+    @Value
+    private static class Key {
+        byte[] hash;
+        CSVFilePaymentType type;
+        /**
+         * Processing day of a validation outcome, {@link CSVDates#INVALID_DATE} for a parsed file
+         */
+        int processingDay;
+    }
+
+    @Value
+    private static class Entry {
+        Object value;
+        long weight;
+        long expiresAt;
+    }
+}
@@ -22,13 +22,19 @@ package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.exception;
 
 import uk.org.openbanking.datamodel.error.OBError1;
 
+/**
+ * Validation and parsing error, raised for every bad upload:<br/>
+ * <li>No stack trace filled, the error type and arguments identify the failure</li>
+ * <li>The message is formatted on the first {@link #getMessage()} or {@link #getOBError()} call</li>
+ */
 public class CSVErrorException extends RuntimeException {
 
     private CSVErrorType csvErrorType;
     private Object[] args;
+    private String message;
 
     public CSVErrorException(CSVErrorType csvErrorType, Object... args) {
-        super(String.format(csvErrorType.getMessage(), args));
+        super();
         this.csvErrorType = csvErrorType;
         this.args = (args != null ? args : new String[]{""});
     }
@@ -41,7 +47,25 @@ public class CSVErrorException extends RuntimeException {
         return this.args;
     }
 
+    @Override
+    public String getMessage() {
+        if (this.message == null) {
+            this.message = this.csvErrorType.format(this.args);
+        }
+        return this.message;
+    }
+
+    /**
+     * No stack trace, the cause and the suppressed exceptions are still supported
+     *
+     * @return this exception
+     */
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+
     public OBError1 getOBError() {
-        return this.csvErrorType.toOBError1(this.args);
+        return this.csvErrorType.toOBError1Formatted(getMessage());
     }
 }
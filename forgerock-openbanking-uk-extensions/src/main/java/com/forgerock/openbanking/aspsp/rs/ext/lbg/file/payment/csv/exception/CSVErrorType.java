@@ -43,6 +43,7 @@ public enum CSVErrorType {
     NUMBER_CREDITS_ROWS_NOT_ALLOWED(HttpStatus.BAD_REQUEST, OBStandardErrorCodes1.UK_OBIE_RESOURCE_INVALID_FORMAT, "The number of credit rows exceeds the %d allowed rows. Current rows = %d"),
     INVALID_CREDIT_AMOUNT(HttpStatus.BAD_REQUEST, OBStandardErrorCodes1.UK_OBIE_RESOURCE_INVALID_FORMAT, "The credit amount value %s not match with the total sum amount of credit rows %s"),
     INVALID_FORMAT(HttpStatus.BAD_REQUEST, OBStandardErrorCodes1.UK_OBIE_RESOURCE_INVALID_FORMAT, "File format error, parse error. %s"),
+    PARSE_LIMIT_EXCEEDED(HttpStatus.BAD_REQUEST, OBStandardErrorCodes1.UK_OBIE_RESOURCE_INVALID_FORMAT, "File format error, parse limit exceeded. The %s exceeds the %d allowed."),
     INVALID_DATE_FORMAT(HttpStatus.BAD_REQUEST, OBStandardErrorCodes1.UK_OBIE_RESOURCE_INVALID_FORMAT, "Date format error, parse error. The date '%s' not match with the date format '%s' expected."),
     INVALID_PAYMENT_DATE(HttpStatus.BAD_REQUEST, OBStandardErrorCodes1.UK_OBIE_RESOURCE_INVALID_FORMAT, "Date format error, parse error. The date '%s' cannot be in the past."),
     INVALID_PAYMENT_DATE_LATER_DAYS(HttpStatus.BAD_REQUEST, OBStandardErrorCodes1.UK_OBIE_RESOURCE_INVALID_FORMAT, "Date format error, parse error. The date '%s' must be at last %d days later from processing day."),
@@ -57,11 +58,14 @@ public enum CSVErrorType {
     private HttpStatus httpStatus;
     private StandardErrorCode code;
     private String message;
+    // slf4j template of the message, built once
+    private String logMessage;
 
     CSVErrorType(HttpStatus httpStatus, StandardErrorCode code, String message) {
         this.httpStatus = httpStatus;
         this.code = code;
         this.message = message;
+        this.logMessage = message.replace("%s", "{}").replace("%d", "{}");
     }
 
     public HttpStatus getHttpStatus() {
@@ -77,10 +81,22 @@ public enum CSVErrorType {
     }
 
     public String getLogMessage() {
-        return this.message.replace("%s", "{}").replace("%d", "{}");
+        return this.logMessage;
+    }
+
+    /**
+     * @param args message arguments
+     * @return the message formatted with the arguments
+     */
+    public String format(Object... args) {
+        return String.format(this.getMessage(), args);
     }
 
     public OBError1 toOBError1(Object... args) {
-        return (new OBError1()).errorCode(this.getCode().getValue()).message(String.format(this.getMessage(), args));
+        return toOBError1Formatted(format(args));
+    }
+
+    OBError1 toOBError1Formatted(String formattedMessage) {
+        return (new OBError1()).errorCode(this.getCode().getValue()).message(formattedMessage);
     }
 }
@@ -0,0 +1,108 @@
+/**
+ * Copyright 2019 ForgeRock AS.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory;
+
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVBulkBACSFilePayment;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVCreditIndicatorRow;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVDebitIndicatorSection;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVFileLayout;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVFilePayment;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVHeaderIndicatorSection;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.parser.CSVBulkBACSParser;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.parser.CSVParserImpl;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation.CSVBulkBACSFileValidationService;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation.CSVCreditRowRule;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation.CSVCreditRowsValidator;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation.CSVValidation;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation.CSVValidationService;
+
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.util.List;
+
+/**
+ * {@link CSVFileTypeProvider} of {@link CSVFilePaymentType#UK_LBG_BACS_BULK_V10}
+ */
+public class CSVBulkBACSFileTypeProvider implements CSVFileTypeProvider {
+    private static final CSVFileLayout LAYOUT = CSVFileLayout.builder()
+            .headerColumn(CSVHeaderIndicatorSection::getHeaderIndicator)
+            .headerColumn(CSVHeaderIndicatorSection::getFileCreationDate)
+            .headerColumn(CSVHeaderIndicatorSection::getUniqueId)
+            .headerColumn(CSVHeaderIndicatorSection::getNumCredits)
+            .headerColumn(CSVHeaderIndicatorSection::getValueCreditsSum)
+            .debitColumn(CSVDebitIndicatorSection::getDebitIndicator)
+            .debitColumn(CSVDebitIndicatorSection::getPaymentDate)
+            .debitColumn(CSVDebitIndicatorSection::getBatchReference)
+            .debitColumn(CSVDebitIndicatorSection::getDebitAccountDetails)
+            .creditRowColumn(CSVCreditIndicatorRow::getCreditIndicator)
+            .creditRowColumn(CSVCreditIndicatorRow::getRecipientName)
+            .creditRowColumn(CSVCreditIndicatorRow::getRecipientSortCode)
+            .creditRowColumn(CSVCreditIndicatorRow::getAccNumber)
+            .creditRowColumn(CSVCreditIndicatorRow::getReference)
+            .creditRowColumn(CSVCreditIndicatorRow::getDebitAmount)
+            .build();
+
+    @Override
+    public CSVFilePaymentType getType() {
+        return CSVFilePaymentType.UK_LBG_BACS_BULK_V10;
+    }
+
+    @Override
+    public CSVFilePayment createFilePayment() {
+        return new CSVBulkBACSFilePayment(getType());
+    }
+
+    @Override
+    public CSVParserImpl createParser(final Reader content) {
+        return new CSVBulkBACSParser(content, getType());
+    }
+
+    @Override
+    public CSVParserImpl createParser(final ByteBuffer content) {
+        return new CSVBulkBACSParser(content, getType());
+    }
+
+    @Override
+    public CSVParserImpl createParser() {
+        return new CSVBulkBACSParser(getType());
+    }
+
+    @Override
+    public CSVValidation createValidation(final CSVFilePayment filePayment, final Clock clock) {
+        return new CSVBulkBACSFileValidationService(filePayment, clock);
+    }
+
+    @Override
+    public CSVValidationService createValidation(final CSVFilePayment filePayment, final Clock clock, final CSVCreditRowsValidator creditRowsValidator) {
+        return new CSVBulkBACSFileValidationService(filePayment, clock, creditRowsValidator);
+    }
+
+    @Override
+    public List<CSVCreditRowRule> getCreditRowRules() {
+        return CSVBulkBACSFileValidationService.CREDIT_ROW_RULES;
+    }
+
+    @Override
+    public CSVFileLayout getLayout() {
+        return LAYOUT;
+    }
+}
@@ -20,11 +20,9 @@
  */
 package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory;
 
-import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVBatchFPSFilePayment;
-import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVBulkBACSFilePayment;
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVFilePayment;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVFilePaymentImpl;
 import com.forgerock.openbanking.exceptions.OBErrorException;
-import com.forgerock.openbanking.model.error.OBRIErrorType;
 import com.google.common.base.Preconditions;
 import lombok.extern.slf4j.Slf4j;
 
@@ -40,15 +38,21 @@ public class CSVFilePaymentFactory {
      */
     public static CSVFilePayment create(CSVFilePaymentType type) throws OBErrorException {
         Preconditions.checkNotNull(type, "Cannot have a null file type");
-        switch (type) {
-            case UK_LBG_FPS_BATCH_V10:
-                return new CSVBatchFPSFilePayment(type);
-            case UK_LBG_BACS_BULK_V10:
-                return new CSVBulkBACSFilePayment(type);
-            default:
-                log.error(String.format(OBRIErrorType.REQUEST_MEDIA_TYPE_NOT_SUPPORTED.getMessage(), type.getFileType(), CSVFilePaymentType.getSupportedTypes()));
-                throw new OBErrorException(OBRIErrorType.REQUEST_MEDIA_TYPE_NOT_SUPPORTED, type.getFileType(), CSVFilePaymentType.getSupportedTypes());
-        }
+        return CSVFileTypeRegistry.getProvider(type).createFilePayment();
+    }
+
+    /**
+     * Get a CSV payment file for the supplied type holding the credit rows by columns, see {@link CSVFilePaymentImpl#setColumnar(boolean)}
+     *
+     * @param type {@link CSVFilePaymentType}
+     * @return {@link CSVFilePayment}
+     * @throws OBErrorException File contents not valid or did not match type
+     */
+    public static CSVFilePayment createColumnar(CSVFilePaymentType type) throws OBErrorException {
+        CSVFilePayment filePayment = create(type);
+        Preconditions.checkState(filePayment instanceof CSVFilePaymentImpl, "The payment file of type %s cannot hold the credit rows by columns", type);
+        ((CSVFilePaymentImpl) filePayment).setColumnar(true);
+        return filePayment;
     }
 
     /**
@@ -26,7 +26,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.MediaType;
 import org.springframework.util.MimeType;
 
-import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 @Slf4j
 public enum CSVFilePaymentType {
@@ -34,6 +35,14 @@ public enum CSVFilePaymentType {
     UK_LBG_BACS_BULK_V10("UK.LBG.O4B.BULK.BACS"),
     UK_LBG_ONLY_TEST("BAD_TYPE");
 
+    private static final Map<String, CSVFilePaymentType> BY_FILE_TYPE = new HashMap<>();
+
+    static {
+        for (CSVFilePaymentType type : values()) {
+            BY_FILE_TYPE.put(type.fileType, type);
+        }
+    }
+
     private final String fileType;
 
     CSVFilePaymentType(String fileType) {
@@ -49,25 +58,22 @@ public enum CSVFilePaymentType {
     }
 
     public boolean isSupported(String fileType) {
-        return Arrays.stream(CSVFilePaymentType.values())
-                .anyMatch(e -> e.fileType.equals(fileType));
+        return BY_FILE_TYPE.containsKey(fileType);
     }
 
     public static CSVFilePaymentType fromStringType(String value) {
-        for (CSVFilePaymentType csvFilePaymentType : CSVFilePaymentType.values()) {
-            if (csvFilePaymentType.fileType.equals(value)) {
-                return csvFilePaymentType;
-            }
+        CSVFilePaymentType csvFilePaymentType = value != null ? BY_FILE_TYPE.get(value) : null;
+        if (csvFilePaymentType != null) {
+            return csvFilePaymentType;
         }
         log.error(CSVErrorType.UNSUPPORTED_PAYMENT_TYPE.getLogMessage(), value, getSupportedTypes());
         throw new CSVErrorException(CSVErrorType.UNSUPPORTED_PAYMENT_TYPE, value, getSupportedTypes());
     }
 
+    /**
+     * @return the file types registered in {@link CSVFileTypeRegistry}, quoted and separated by spaces
+     */
     public static String getSupportedTypes() {
-        return new StringBuilder()
-                .append("'")
-                .append(UK_LBG_FPS_BATCH_V10.getFileType()).append("' ")
-                .append("'")
-                .append(UK_LBG_BACS_BULK_V10.getFileType()).append("' ").toString();
+        return CSVFileTypeRegistry.getSupportedTypes();
     }
 }
@@ -0,0 +1,98 @@
+/**
+ * Copyright 2019 ForgeRock AS.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory;
+
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVFileLayout;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVFilePayment;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.parser.CSVParserImpl;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation.CSVCreditRowRule;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation.CSVCreditRowsValidator;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation.CSVValidation;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation.CSVValidationService;
+
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.util.List;
+
+/**
+ * Payment file, parser and validation of a {@link CSVFilePaymentType}, used by the factories.<br/>
+ * The providers are registered in {@link CSVFileTypeRegistry} with the {@link java.util.ServiceLoader} mechanism:
+ * a file <code>META-INF/services/com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory.CSVFileTypeProvider</code>
+ * listing the implementations, which need a public constructor without arguments.
+ */
+public interface CSVFileTypeProvider {
+
+    /**
+     * @return the file type provided
+     */
+    CSVFilePaymentType getType();
+
+    /**
+     * @return an empty payment file of the type
+     */
+    CSVFilePayment createFilePayment();
+
+    /**
+     * @param content the file content, not closed by the parser
+     * @return a parser reading the content from a character stream
+     */
+    CSVParserImpl createParser(Reader content);
+
+    /**
+     * @param content the UTF-8 file content from its position to its limit
+     * @return a parser tokenizing the content bytes
+     */
+    CSVParserImpl createParser(ByteBuffer content);
+
+    /**
+     * @return a parser without content source, the records are pushed by a {@link com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.parser.CSVFeedParser}
+     */
+    CSVParserImpl createParser();
+
+    /**
+     * @param filePayment payment file of the type to validate
+     * @param clock       clock of the processing day
+     * @return the validation service of the type
+     */
+    CSVValidation createValidation(CSVFilePayment filePayment, Clock clock);
+
+    /**
+     * @param filePayment         payment file of the type to validate
+     * @param clock               clock of the processing day
+     * @param creditRowsValidator validator of the {@link #getCreditRowRules()} shared by the validations
+     * @return the validation service of the type
+     */
+    CSVValidationService createValidation(CSVFilePayment filePayment, Clock clock, CSVCreditRowsValidator creditRowsValidator);
+
+    /**
+     * @return the rules validating the credit rows of the type, in their errors priority order
+     */
+    List<CSVCreditRowRule> getCreditRowRules();
+
+    /**
+     * @return the columns of the records, to write the files of the type, null when they can't be written,
+     * see {@link com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.writer.CSVFilePaymentWriter}
+     */
+    default CSVFileLayout getLayout() {
+        return null;
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright 2019 ForgeRock AS.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory;
+
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation.CSVFileValidator;
+import com.forgerock.openbanking.exceptions.OBErrorException;
+import com.forgerock.openbanking.model.error.OBRIErrorType;
+import com.google.common.base.Preconditions;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * Registry of the supported file types, the {@link CSVFileTypeProvider} loaded once with the {@link ServiceLoader}:<br/>
+ * <li>The provider of a type is looked up in an {@link EnumMap}</li>
+ * <li>A {@link CSVFileValidator} with the system clock is built once per type and shared</li>
+ * <li>The supported types message is built once, in the order of the {@link CSVFilePaymentType} values</li>
+ * <li>A type provided twice keeps its first provider on the class path</li>
+ */
+@Slf4j
+public final class CSVFileTypeRegistry {
+    private static final Map<CSVFilePaymentType, CSVFileTypeProvider> PROVIDERS = load();
+    private static final Map<CSVFilePaymentType, CSVFileValidator> VALIDATORS = createValidators(Clock.systemDefaultZone());
+    private static final String SUPPORTED_TYPES = supportedTypes();
+
+    private CSVFileTypeRegistry() {
+    }
+
+    /**
+     * @param type {@link CSVFilePaymentType}
+     * @return the provider of the type
+     * @throws OBErrorException type not supported
+     */
+    public static CSVFileTypeProvider getProvider(CSVFilePaymentType type) throws OBErrorException {
+        Preconditions.checkNotNull(type, "Cannot have a null file type");
+        CSVFileTypeProvider provider = PROVIDERS.get(type);
+        if (provider == null) {
+            log.error(String.format(OBRIErrorType.REQUEST_MEDIA_TYPE_NOT_SUPPORTED.getMessage(), type.getFileType(), SUPPORTED_TYPES));
+            throw new OBErrorException(OBRIErrorType.REQUEST_MEDIA_TYPE_NOT_SUPPORTED, type.getFileType(), SUPPORTED_TYPES);
+        }
+        return provider;
+    }
+
+    /**
+     * @param type {@link CSVFilePaymentType}
+     * @return the validator of the type shared by the threads, with the system clock
+     * @throws OBErrorException type not supported
+     */
+    public static CSVFileValidator getValidator(CSVFilePaymentType type) throws OBErrorException {
+        getProvider(type);
+        return VALIDATORS.get(type);
+    }
+
+    /**
+     * @param clock clock of the processing day
+     * @return a validator per supported type with the clock, to share by the threads
+     */
+    public static Map<CSVFilePaymentType, CSVFileValidator> createValidators(Clock clock) {
+        Preconditions.checkNotNull(clock, "Cannot have a null clock");
+        Map<CSVFilePaymentType, CSVFileValidator> validators = new EnumMap<>(CSVFilePaymentType.class);
+        PROVIDERS.forEach((type, provider) -> validators.put(type, new CSVFileValidator(type, clock, provider.getCreditRowRules(), provider::createValidation)));
+        return Collections.unmodifiableMap(validators);
+    }
+
+    /**
+     * @param type {@link CSVFilePaymentType}
+     * @return true when a provider is registered for the type
+     */
+    public static boolean isSupported(CSVFilePaymentType type) {
+        return type != null && PROVIDERS.containsKey(type);
+    }
+
+    /**
+     * @return the file types with a provider, quoted and separated by spaces
+     */
+    public static String getSupportedTypes() {
+        return SUPPORTED_TYPES;
+    }
+
+    private static Map<CSVFilePaymentType, CSVFileTypeProvider> load() {
+        Map<CSVFilePaymentType, CSVFileTypeProvider> providers = new EnumMap<>(CSVFilePaymentType.class);
+        for (CSVFileTypeProvider provider : ServiceLoader.load(CSVFileTypeProvider.class, CSVFileTypeRegistry.class.getClassLoader())) {
+            CSVFileTypeProvider registered = providers.putIfAbsent(provider.getType(), provider);
+            if (registered != null) {
+                log.warn("File type '{}' provided by {} already, {} ignored", provider.getType().getFileType(), registered.getClass().getName(), provider.getClass().getName());
+            } else {
+                log.debug("File type '{}' provided by {}", provider.getType().getFileType(), provider.getClass().getName());
+            }
+        }
+        return Collections.unmodifiableMap(providers);
+    }
+
+    private static String supportedTypes() {
+        StringBuilder types = new StringBuilder();
+        PROVIDERS.keySet().forEach(type -> types.append("'").append(type.getFileType()).append("' "));
+        return types.toString();
+    }
+}
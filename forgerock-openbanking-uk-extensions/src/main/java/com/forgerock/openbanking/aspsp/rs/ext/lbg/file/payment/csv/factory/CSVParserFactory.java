@@ -20,25 +20,356 @@
  */
 package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory;
 
-import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.parser.CSVBatchFPSParser;
-import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.parser.CSVBulkBACSParser;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.exception.CSVErrorException;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.exception.CSVErrorType;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.parser.CSVFeedParser;
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.parser.CSVParser;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.parser.CSVParserImpl;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.parser.CSVParserLimits;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.parser.CSVRecordListener;
 import com.forgerock.openbanking.exceptions.OBErrorException;
 import com.forgerock.openbanking.model.error.OBRIErrorType;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+
 @Slf4j
 public class CSVParserFactory {
 
+    /**
+     * Get a streaming parser for the supplied type, without limits: the number of credit rows is checked by the validation
+     *
+     * @param type    {@link CSVFilePaymentType}
+     * @param content the file content
+     * @return {@link CSVParser}
+     * @throws OBErrorException type not supported
+     */
     public static CSVParser parse(CSVFilePaymentType type, String content) throws OBErrorException {
-        switch (type) {
-            case UK_LBG_FPS_BATCH_V10:
-                return new CSVBatchFPSParser(content, type);
-            case UK_LBG_BACS_BULK_V10:
-                return new CSVBulkBACSParser(content, type);
-            default:
-                log.error(String.format(OBRIErrorType.REQUEST_MEDIA_TYPE_NOT_SUPPORTED.getMessage(), type.getFileType(), CSVFilePaymentType.getSupportedTypes()));
-                throw new OBErrorException(OBRIErrorType.REQUEST_MEDIA_TYPE_NOT_SUPPORTED, type.getFileType(), CSVFilePaymentType.getSupportedTypes());
+        return parse(type, content, CSVParserLimits.NONE);
+    }
+
+    /**
+     * Get a streaming parser for the supplied type enforcing the limits
+     *
+     * @param type    {@link CSVFilePaymentType}
+     * @param content the file content
+     * @param limits  {@link CSVParserLimits}, the size in characters
+     * @return {@link CSVParser}
+     * @throws OBErrorException type not supported
+     */
+    public static CSVParser parse(CSVFilePaymentType type, String content, CSVParserLimits limits) throws OBErrorException {
+        return parse(type, new StringReader(content), limits);
+    }
+
+    /**
+     * Get a streaming parser for the supplied type enforcing the {@link CSVParserLimits#DEFAULT} limits,
+     * the content is decoded as UTF-8
+     *
+     * @param type    {@link CSVFilePaymentType}
+     * @param content the file content, not closed by the parser
+     * @return {@link CSVParser}
+     * @throws OBErrorException type not supported
+     */
+    public static CSVParser parse(CSVFilePaymentType type, InputStream content) throws OBErrorException {
+        return parse(type, content, CSVParserLimits.DEFAULT);
+    }
+
+    /**
+     * Get a streaming parser for the supplied type enforcing the limits, the content is decoded as UTF-8
+     * and read no further than the first limit exceeded
+     *
+     * @param type    {@link CSVFilePaymentType}
+     * @param content the file content, not closed by the parser
+     * @param limits  {@link CSVParserLimits}, the size in characters
+     * @return {@link CSVParser}
+     * @throws OBErrorException type not supported
+     */
+    public static CSVParser parse(CSVFilePaymentType type, InputStream content, CSVParserLimits limits) throws OBErrorException {
+        return parse(type, new InputStreamReader(content, StandardCharsets.UTF_8), limits);
+    }
+
+    /**
+     * Get a streaming parser for the supplied type enforcing the {@link CSVParserLimits#DEFAULT} limits,
+     * the content is decoded as UTF-8
+     *
+     * @param type    {@link CSVFilePaymentType}
+     * @param content the file content, not closed by the parser
+     * @return {@link CSVParser}
+     * @throws OBErrorException type not supported
+     */
+    public static CSVParser parse(CSVFilePaymentType type, ReadableByteChannel content) throws OBErrorException {
+        return parse(type, content, CSVParserLimits.DEFAULT);
+    }
+
+    /**
+     * Get a streaming parser for the supplied type enforcing the limits, the content is decoded as UTF-8
+     * and read no further than the first limit exceeded
+     *
+     * @param type    {@link CSVFilePaymentType}
+     * @param content the file content, not closed by the parser
+     * @param limits  {@link CSVParserLimits}, the size in characters
+     * @return {@link CSVParser}
+     * @throws OBErrorException type not supported
+     */
+    public static CSVParser parse(CSVFilePaymentType type, ReadableByteChannel content, CSVParserLimits limits) throws OBErrorException {
+        // the malformed bytes replaced, as the stream and the bytes parsers do
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        return parse(type, Channels.newReader(content, decoder, -1), limits);
+    }
+
+    /**
+     * Get a streaming parser for the supplied type, without limits
+     *
+     * @param type    {@link CSVFilePaymentType}
+     * @param content the file content, not closed by the parser
+     * @return {@link CSVParser}
+     * @throws OBErrorException type not supported
+     */
+    public static CSVParser parse(CSVFilePaymentType type, Reader content) throws OBErrorException {
+        return parse(type, content, CSVParserLimits.NONE);
+    }
+
+    /**
+     * Get a streaming parser for the supplied type enforcing the limits, the content is read no further
+     * than the first limit exceeded
+     *
+     * @param type    {@link CSVFilePaymentType}
+     * @param content the file content, not closed by the parser
+     * @param limits  {@link CSVParserLimits}, the size in characters
+     * @return {@link CSVParser}
+     * @throws OBErrorException type not supported
+     */
+    public static CSVParser parse(CSVFilePaymentType type, Reader content, CSVParserLimits limits) throws OBErrorException {
+        CSVParserImpl parser = CSVFileTypeRegistry.getProvider(type).createParser(content);
+        parser.setLimits(limits);
+        return parser;
+    }
+
+    /**
+     * Get a parser for the supplied type tokenizing the UTF-8 content bytes, without decoding the whole content
+     * and without limits
+     *
+     * @param type    {@link CSVFilePaymentType}
+     * @param content the file content
+     * @return {@link CSVParser}
+     * @throws OBErrorException type not supported
+     */
+    public static CSVParser parse(CSVFilePaymentType type, byte[] content) throws OBErrorException {
+        return parse(type, content, CSVParserLimits.NONE);
+    }
+
+    /**
+     * Get a parser for the supplied type tokenizing the UTF-8 content bytes and enforcing the limits
+     *
+     * @param type    {@link CSVFilePaymentType}
+     * @param content the file content
+     * @param limits  {@link CSVParserLimits}
+     * @return {@link CSVParser}
+     * @throws OBErrorException type not supported
+     */
+    public static CSVParser parse(CSVFilePaymentType type, byte[] content, CSVParserLimits limits) throws OBErrorException {
+        return parse(type, ByteBuffer.wrap(content), limits);
+    }
+
+    /**
+     * Get a parser for the supplied type tokenizing the UTF-8 content bytes, without decoding the whole content
+     * and without limits
+     *
+     * @param type    {@link CSVFilePaymentType}
+     * @param content the file content from its position to its limit, e.g. a mapped file
+     * @return {@link CSVParser}
+     * @throws OBErrorException type not supported
+     */
+    public static CSVParser parse(CSVFilePaymentType type, ByteBuffer content) throws OBErrorException {
+        return parse(type, content, CSVParserLimits.NONE);
+    }
+
+    /**
+     * Get a parser for the supplied type tokenizing the UTF-8 content bytes and enforcing the limits,
+     * the content exceeding the size limit is not read at all
+     *
+     * @param type    {@link CSVFilePaymentType}
+     * @param content the file content from its position to its limit
+     * @param limits  {@link CSVParserLimits}
+     * @return {@link CSVParser}
+     * @throws OBErrorException type not supported
+     */
+    public static CSVParser parse(CSVFilePaymentType type, ByteBuffer content, CSVParserLimits limits) throws OBErrorException {
+        CSVParserImpl parser = CSVFileTypeRegistry.getProvider(type).createParser(content);
+        parser.setLimits(limits);
+        return parser;
+    }
+
+    /**
+     * Get a parser for the supplied type tokenizing the UTF-8 content bytes without limits,
+     * the credit rows are parsed in parallel when they are larger than the threshold
+     *
+     * @param type              {@link CSVFilePaymentType}
+     * @param content           the file content from its position to its limit, e.g. a mapped file
+     * @param pool              pool parsing the credit rows
+     * @param parallelThreshold minimum size in bytes of the credit rows to parse them in parallel
+     * @return {@link CSVParser}
+     * @throws OBErrorException type not supported
+     */
+    public static CSVParser parse(CSVFilePaymentType type, ByteBuffer content, ForkJoinPool pool, long parallelThreshold) throws OBErrorException {
+        return parse(type, content, pool, parallelThreshold, CSVParserLimits.NONE);
+    }
+
+    /**
+     * Get a parser for the supplied type tokenizing the UTF-8 content bytes and enforcing the limits,
+     * the credit rows are parsed in parallel when they are larger than the threshold
+     *
+     * @param type              {@link CSVFilePaymentType}
+     * @param content           the file content from its position to its limit, e.g. a mapped file
+     * @param pool              pool parsing the credit rows
+     * @param parallelThreshold minimum size in bytes of the credit rows to parse them in parallel
+     * @param limits            {@link CSVParserLimits}
+     * @return {@link CSVParser}
+     * @throws OBErrorException type not supported
+     */
+    public static CSVParser parse(CSVFilePaymentType type, ByteBuffer content, ForkJoinPool pool, long parallelThreshold,
+                                  CSVParserLimits limits) throws OBErrorException {
+        CSVParserImpl parser = CSVFileTypeRegistry.getProvider(type).createParser(content);
+        parser.setLimits(limits);
+        parser.setParallelParsing(pool, parallelThreshold);
+        return parser;
+    }
+
+    /**
+     * Get a parser for the supplied type tokenizing the UTF-8 file mapped in memory, without limits
+     * to parse the large files of the batch processing.<br/>
+     * The file content is never copied to the heap, the pages are read from the file system cache when parsing,
+     * so parsing the same file again doesn't read it from disk again. The file is closed once mapped, the mapping
+     * stays valid until the parser is garbage collected.
+     *
+     * @param type {@link CSVFilePaymentType}
+     * @param path the file, up to 2GB
+     * @return {@link CSVParser}
+     * @throws OBErrorException type not supported or the file can't be mapped
+     */
+    public static CSVParser parse(CSVFilePaymentType type, Path path) throws OBErrorException {
+        return parse(type, path, CSVParserLimits.NONE);
+    }
+
+    /**
+     * Get a parser for the supplied type tokenizing the UTF-8 file mapped in memory and enforcing the limits,
+     * the file exceeding the size limit is not mapped at all
+     *
+     * @param type   {@link CSVFilePaymentType}
+     * @param path   the file, up to 2GB
+     * @param limits {@link CSVParserLimits}
+     * @return {@link CSVParser}
+     * @throws OBErrorException type not supported or the file can't be mapped
+     */
+    public static CSVParser parse(CSVFilePaymentType type, Path path, CSVParserLimits limits) throws OBErrorException {
+        return parse(type, map(type, path, limits), limits);
+    }
+
+    /**
+     * Get a parser for the supplied type tokenizing the UTF-8 file mapped in memory without limits,
+     * the credit rows are parsed in parallel when they are larger than the threshold
+     *
+     * @param type              {@link CSVFilePaymentType}
+     * @param path              the file, up to 2GB
+     * @param pool              pool parsing the credit rows
+     * @param parallelThreshold minimum size in bytes of the credit rows to parse them in parallel
+     * @return {@link CSVParser}
+     * @throws OBErrorException type not supported or the file can't be mapped
+     */
+    public static CSVParser parse(CSVFilePaymentType type, Path path, ForkJoinPool pool, long parallelThreshold) throws OBErrorException {
+        return parse(type, path, pool, parallelThreshold, CSVParserLimits.NONE);
+    }
+
+    /**
+     * Get a parser for the supplied type tokenizing the UTF-8 file mapped in memory and enforcing the limits,
+     * the credit rows are parsed in parallel when they are larger than the threshold
+     *
+     * @param type              {@link CSVFilePaymentType}
+     * @param path              the file, up to 2GB
+     * @param pool              pool parsing the credit rows
+     * @param parallelThreshold minimum size in bytes of the credit rows to parse them in parallel
+     * @param limits            {@link CSVParserLimits}
+     * @return {@link CSVParser}
+     * @throws OBErrorException type not supported or the file can't be mapped
+     */
+    public static CSVParser parse(CSVFilePaymentType type, Path path, ForkJoinPool pool, long parallelThreshold,
+                                  CSVParserLimits limits) throws OBErrorException {
+        return parse(type, map(type, path, limits), pool, parallelThreshold, limits);
+    }
+
+    /**
+     * Get a push parser for the supplied type enforcing the {@link CSVParserLimits#DEFAULT} limits,
+     * the content is fed in chunks as it arrives
+     *
+     * @param type {@link CSVFilePaymentType}
+     * @return {@link CSVFeedParser}
+     * @throws OBErrorException type not supported
+     */
+    public static CSVFeedParser feed(CSVFilePaymentType type) throws OBErrorException {
+        return feed(type, null);
+    }
+
+    /**
+     * Get a push parser for the supplied type enforcing the {@link CSVParserLimits#DEFAULT} limits,
+     * the content is fed in chunks as it arrives
+     *
+     * @param type           {@link CSVFilePaymentType}
+     * @param recordListener {@link CSVRecordListener} notified with every section parsed, can be null
+     * @return {@link CSVFeedParser}
+     * @throws OBErrorException type not supported
+     */
+    public static CSVFeedParser feed(CSVFilePaymentType type, CSVRecordListener recordListener) throws OBErrorException {
+        return feed(type, recordListener, CSVParserLimits.DEFAULT);
+    }
+
+    /**
+     * Get a push parser for the supplied type enforcing the limits, the content is fed in chunks as it arrives
+     *
+     * @param type           {@link CSVFilePaymentType}
+     * @param recordListener {@link CSVRecordListener} notified with every section parsed, can be null
+     * @param limits         {@link CSVParserLimits}
+     * @return {@link CSVFeedParser}
+     * @throws OBErrorException type not supported
+     */
+    public static CSVFeedParser feed(CSVFilePaymentType type, CSVRecordListener recordListener, CSVParserLimits limits) throws OBErrorException {
+        CSVParserImpl parser = CSVFileTypeRegistry.getProvider(type).createParser();
+        parser.setLimits(limits);
+        return new CSVFeedParser(parser, recordListener);
+    }
+
+    private static MappedByteBuffer map(CSVFilePaymentType type, Path path, CSVParserLimits limits) throws OBErrorException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > limits.getMaxBytes() && limits.getMaxBytes() > 0) {
+                CSVErrorException e = new CSVErrorException(CSVErrorType.PARSE_LIMIT_EXCEEDED, "file size", limits.getMaxBytes());
+                log.error("Error mapping the file '{}' for payment type '{}'. {}", path, type.getFileType(), e.getMessage());
+                throw e;
+            }
+            if (size > Integer.MAX_VALUE) {
+                log.error("Error mapping the file '{}' for payment type '{}'. The file size {} exceeds the mapping limit of {} bytes", path, type.getFileType(), size, Integer.MAX_VALUE);
+                throw new OBErrorException(OBRIErrorType.REQUEST_UNDEFINED_ERROR_YET, String.format("The file size %d exceeds the mapping limit of %d bytes", size, Integer.MAX_VALUE));
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (IOException ioException) {
+            log.error("Error mapping the file '{}' for payment type '{}'.", path, type.getFileType(), ioException);
+            throw new OBErrorException(OBRIErrorType.REQUEST_UNDEFINED_ERROR_YET, ioException.getMessage());
         }
     }
 }
@@ -21,29 +21,51 @@
 package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory;
 
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVFilePayment;
-import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation.CSVBatchFPSFileValidationService;
-import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation.CSVBulkBACSFileValidationService;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation.CSVFileValidator;
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation.CSVValidation;
 import com.forgerock.openbanking.exceptions.OBErrorException;
-import com.forgerock.openbanking.model.error.OBRIErrorType;
 import com.google.common.base.Preconditions;
 import lombok.extern.slf4j.Slf4j;
 
+import java.time.Clock;
+
 @Slf4j
 public class CSVValidationFactory {
 
     public static CSVValidation getValidationServiceInstance(CSVFilePayment filePayment) throws OBErrorException {
+        return getValidationServiceInstance(filePayment, Clock.systemDefaultZone());
+    }
+
+    /**
+     * @param filePayment payment file to validate
+     * @param clock       clock of the processing day
+     * @return the validation service of the file type
+     * @throws OBErrorException type not supported
+     */
+    public static CSVValidation getValidationServiceInstance(CSVFilePayment filePayment, Clock clock) throws OBErrorException {
         Preconditions.checkNotNull(filePayment, "Cannot have a null content file");
-        switch (filePayment.getFilePaymentType()) {
-            case UK_LBG_FPS_BATCH_V10:
-                log.trace("Validation service for '{}' ", CSVFilePaymentType.UK_LBG_FPS_BATCH_V10.getFileType());
-                return new CSVBatchFPSFileValidationService(filePayment);
-            case UK_LBG_BACS_BULK_V10:
-                log.trace("Validation service for '{}' ", CSVFilePaymentType.UK_LBG_BACS_BULK_V10.getFileType());
-                return new CSVBulkBACSFileValidationService(filePayment);
-            default:
-                log.error(String.format(OBRIErrorType.REQUEST_MEDIA_TYPE_NOT_SUPPORTED.getMessage(), filePayment.getFilePaymentType(), CSVFilePaymentType.getSupportedTypes()));
-                throw new OBErrorException(OBRIErrorType.REQUEST_MEDIA_TYPE_NOT_SUPPORTED, filePayment.getFilePaymentType(), CSVFilePaymentType.getSupportedTypes());
-        }
+        CSVFileTypeProvider provider = CSVFileTypeRegistry.getProvider(filePayment.getFilePaymentType());
+        log.trace("Validation service for '{}' ", filePayment.getFilePaymentType().getFileType());
+        return provider.createValidation(filePayment, clock);
+    }
+
+    /**
+     * @param type file type
+     * @return the validator of the type, shared by the threads, with the system clock
+     * @throws OBErrorException type not supported
+     */
+    public static CSVFileValidator getValidator(CSVFilePaymentType type) throws OBErrorException {
+        return CSVFileTypeRegistry.getValidator(type);
+    }
+
+    /**
+     * @param type  file type
+     * @param clock clock of the processing day
+     * @return a validator of the type, to share by the threads
+     * @throws OBErrorException type not supported
+     */
+    public static CSVFileValidator getValidator(CSVFilePaymentType type, Clock clock) throws OBErrorException {
+        CSVFileTypeProvider provider = CSVFileTypeRegistry.getProvider(type);
+        return new CSVFileValidator(type, clock, provider.getCreditRowRules(), provider::createValidation);
     }
 }
@@ -0,0 +1,191 @@
+/**
+ * Copyright 2019 ForgeRock AS.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model;
+
+import java.math.BigDecimal;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Amounts as long minor units (pence), an amount with up to 2 decimals is exactly its minor units.<br/>
+ * The amounts that don't fit, more decimals or too large, are kept as {@link BigDecimal}.
+ */
+public final class CSVAmounts {
+    public static final int MINOR_UNITS_SCALE = 2;
+    /**
+     * Not a minor units amount, the decimal amount has to be used
+     */
+    public static final long NOT_MINOR_UNITS = Long.MIN_VALUE;
+    private static final long[] MINOR_UNITS_FACTORS = {100, 10, 1};
+
+    private CSVAmounts() {
+    }
+
+    /**
+     * @param amount decimal amount
+     * @return the amount in minor units, {@link #NOT_MINOR_UNITS} when it doesn't fit
+     */
+    public static long toMinorUnits(final BigDecimal amount) {
+        if (amount == null || amount.scale() < 0 || amount.scale() > MINOR_UNITS_SCALE || amount.precision() > 18) {
+            return NOT_MINOR_UNITS;
+        }
+        return toMinorUnits(amount.unscaledValue().longValue(), amount.scale());
+    }
+
+    /**
+     * @param unscaled unscaled value of a decimal amount
+     * @param scale    scale of a decimal amount
+     * @return the amount in minor units, {@link #NOT_MINOR_UNITS} when it doesn't fit
+     */
+    public static long toMinorUnits(final long unscaled, final int scale) {
+        if (scale < 0 || scale > MINOR_UNITS_SCALE) {
+            return NOT_MINOR_UNITS;
+        }
+        long factor = MINOR_UNITS_FACTORS[scale];
+        if (unscaled > Long.MAX_VALUE / factor || unscaled < -(Long.MAX_VALUE / factor)) {
+            return NOT_MINOR_UNITS;
+        }
+        return unscaled * factor;
+    }
+
+    /**
+     * Set the debit amount of a parsed row with the minor units decoded with it, the sums don't derive them again
+     *
+     * @param row        parsed credit row
+     * @param amount     debit amount
+     * @param minorUnits the minor units decoded with the amount, {@link #NOT_MINOR_UNITS} when not decoded
+     * @return the row
+     */
+    public static CSVCreditIndicatorRow setParsedDebitAmount(final CSVCreditIndicatorRow row, final BigDecimal amount, final long minorUnits) {
+        row.setDebitAmount(amount, minorUnits);
+        return row;
+    }
+
+    /**
+     * @param minorUnits amount in minor units
+     * @param scale      scale of the decimal amount, from 0 to {@link #MINOR_UNITS_SCALE}
+     * @return the decimal amount
+     */
+    public static BigDecimal toBigDecimal(final long minorUnits, final int scale) {
+        return BigDecimal.valueOf(minorUnits / MINOR_UNITS_FACTORS[scale], scale);
+    }
+
+    /**
+     * Sum of the credit rows debit amounts, the same as adding their {@link BigDecimal}
+     *
+     * @param rows credit rows
+     * @return the sum, with the greatest scale of the amounts
+     * @throws NoSuchElementException no rows
+     */
+    public static BigDecimal sumDebitAmounts(final Iterable<CSVCreditIndicatorRow> rows) {
+        if (rows instanceof CSVCreditIndicatorColumns) {
+            return ((CSVCreditIndicatorColumns) rows).sumDebitAmounts();
+        }
+        Sum sum = new Sum();
+        for (CSVCreditIndicatorRow row : rows) {
+            sum.add(row.getDebitAmount(), row.getDebitAmountMinorUnits());
+        }
+        return sum.toBigDecimal();
+    }
+
+    /**
+     * Accumulator summing in minor units until an amount doesn't fit or the sum overflows,
+     * then the sum goes on with {@link BigDecimal}
+     */
+    public static final class Sum {
+        private long minorUnits;
+        private int scale;
+        private int count;
+        private BigDecimal decimalSum;
+
+        /**
+         * @param amount decimal amount
+         * @return this sum
+         */
+        public Sum add(final BigDecimal amount) {
+            return add(amount, toMinorUnits(amount));
+        }
+
+        /**
+         * @param amount           decimal amount
+         * @param amountMinorUnits the same amount in minor units, or {@link #NOT_MINOR_UNITS}
+         * @return this sum
+         */
+        public Sum add(final BigDecimal amount, final long amountMinorUnits) {
+            Objects.requireNonNull(amount);
+            long value = amountMinorUnits != NOT_MINOR_UNITS || decimalSum != null ? amountMinorUnits : toMinorUnits(amount);
+            if (value == NOT_MINOR_UNITS || !addMinorUnits(value, amount.scale())) {
+                addDecimal(amount);
+            }
+            return this;
+        }
+
+        /**
+         * @param amountMinorUnits amount in minor units
+         * @param amountScale      scale of the decimal amount, from 0 to {@link #MINOR_UNITS_SCALE}
+         * @return this sum
+         */
+        public Sum add(final long amountMinorUnits, final int amountScale) {
+            if (!addMinorUnits(amountMinorUnits, amountScale)) {
+                addDecimal(CSVAmounts.toBigDecimal(amountMinorUnits, amountScale));
+            }
+            return this;
+        }
+
+        private boolean addMinorUnits(final long value, final int valueScale) {
+            if (decimalSum != null) {
+                return false;
+            }
+            long result = minorUnits + value;
+            // overflow when both values have a different sign than the result
+            if (((minorUnits ^ result) & (value ^ result)) < 0) {
+                return false;
+            }
+            minorUnits = result;
+            scale = Math.max(scale, valueScale);
+            count++;
+            return true;
+        }
+
+        private void addDecimal(final BigDecimal amount) {
+            if (decimalSum != null) {
+                decimalSum = decimalSum.add(amount);
+            } else {
+                decimalSum = count > 0 ? toBigDecimal().add(amount) : amount;
+            }
+            count++;
+        }
+
+        /**
+         * @return the sum, with the greatest scale of the amounts
+         * @throws NoSuchElementException nothing added
+         */
+        public BigDecimal toBigDecimal() {
+            if (count == 0) {
+                throw new NoSuchElementException("No value present");
+            }
+            if (decimalSum != null) {
+                return decimalSum;
+            }
+            return CSVAmounts.toBigDecimal(minorUnits, scale);
+        }
+    }
+}
@@ -0,0 +1,459 @@
+/**
+ * Copyright 2019 ForgeRock AS.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model;
+
+import java.math.BigDecimal;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+
+/**
+ * Credit indicator rows stored by columns instead of an object per row:
+ * <li>amounts as long minor units, see {@link CSVAmounts}, the amounts that don't fit are kept as decimals</li>
+ * <li>account numbers and sort codes packed as numbers, the values that are not digits are kept as text</li>
+ * <li>the low cardinality text columns, such as the credit indicator or the payment date, dictionary encoded, every distinct value is held once</li>
+ * <li>the names and references, mostly distinct, held as they are</li>
+ * The rows returned are views on the columns, the changes made through a view are stored in the columns.
+ * A view is only valid while its row is not removed.<br/>
+ * Not thread safe.
+ */
+public final class CSVCreditIndicatorColumns extends AbstractList<CSVCreditIndicatorRow> implements RandomAccess {
+    private static final byte NULL_AMOUNT = -1;
+    private static final byte DECIMAL_AMOUNT = -2;
+
+    private final TextColumn[] columns;
+    private long[] amounts;
+    // scale of the amounts, or NULL_AMOUNT/DECIMAL_AMOUNT
+    private byte[] amountScales;
+    // amounts that don't fit in minor units, allocated with the first one
+    private BigDecimal[] decimalAmounts;
+    private int size;
+
+    public CSVCreditIndicatorColumns() {
+        this(16);
+    }
+
+    public CSVCreditIndicatorColumns(final int initialCapacity) {
+        CSVCreditRowColumn[] rowColumns = CSVCreditRowColumn.values();
+        columns = new TextColumn[rowColumns.length];
+        for (CSVCreditRowColumn column : rowColumns) {
+            columns[column.ordinal()] = newColumn(column.getEncoding(), initialCapacity);
+        }
+        amounts = new long[initialCapacity];
+        amountScales = new byte[initialCapacity];
+    }
+
+    @Override
+    public CSVCreditIndicatorRow get(final int index) {
+        Objects.checkIndex(index, size);
+        return new CSVCreditIndicatorRowView(this, index);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean add(final CSVCreditIndicatorRow row) {
+        if (size == amounts.length) {
+            grow();
+        }
+        setRow(size++, row);
+        modCount++;
+        return true;
+    }
+
+    /**
+     * @return a copy of the previous row, the views of this row see the new values
+     */
+    @Override
+    public CSVCreditIndicatorRow set(final int index, final CSVCreditIndicatorRow row) {
+        Objects.checkIndex(index, size);
+        CSVCreditIndicatorRow previous = copyRow(index);
+        setRow(index, row);
+        return previous;
+    }
+
+    @Override
+    public CSVCreditIndicatorRow remove(final int index) {
+        Objects.checkIndex(index, size);
+        CSVCreditIndicatorRow previous = copyRow(index);
+        int moved = size - index - 1;
+        for (TextColumn column : columns) {
+            column.remove(index, moved);
+        }
+        System.arraycopy(amounts, index + 1, amounts, index, moved);
+        System.arraycopy(amountScales, index + 1, amountScales, index, moved);
+        if (decimalAmounts != null) {
+            System.arraycopy(decimalAmounts, index + 1, decimalAmounts, index, moved);
+            decimalAmounts[size - 1] = null;
+        }
+        size--;
+        modCount++;
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        for (TextColumn column : columns) {
+            column.clear();
+        }
+        decimalAmounts = null;
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Count the rows with a value matching the predicate, the dictionary encoded columns test every distinct value once
+     *
+     * @param column    column to scan
+     * @param predicate predicate on the values, null values included
+     * @return the number of rows matching
+     */
+    public int countRows(final CSVCreditRowColumn column, final Predicate<String> predicate) {
+        return columns[column.ordinal()].count(size, predicate);
+    }
+
+    /**
+     * Sum of the debit amounts, see {@link CSVAmounts.Sum}
+     *
+     * @return the sum, with the greatest scale of the amounts
+     * @throws java.util.NoSuchElementException no rows
+     */
+    public BigDecimal sumDebitAmounts() {
+        CSVAmounts.Sum sum = new CSVAmounts.Sum();
+        for (int i = 0; i < size; i++) {
+            byte scale = amountScales[i];
+            if (scale >= 0) {
+                sum.add(amounts[i], scale);
+            } else {
+                sum.add(getDebitAmount(i), CSVAmounts.NOT_MINOR_UNITS);
+            }
+        }
+        return sum.toBigDecimal();
+    }
+
+    String getValue(final int index, final CSVCreditRowColumn column) {
+        return columns[column.ordinal()].get(index);
+    }
+
+    void setValue(final int index, final CSVCreditRowColumn column, final String value) {
+        columns[column.ordinal()].set(index, value);
+    }
+
+    BigDecimal getDebitAmount(final int index) {
+        byte scale = amountScales[index];
+        if (scale == NULL_AMOUNT) {
+            return null;
+        }
+        if (scale == DECIMAL_AMOUNT) {
+            return decimalAmounts[index];
+        }
+        return CSVAmounts.toBigDecimal(amounts[index], scale);
+    }
+
+    long getDebitAmountMinorUnits(final int index) {
+        return amountScales[index] >= 0 ? amounts[index] : CSVAmounts.toMinorUnits(getDebitAmount(index));
+    }
+
+    void setDebitAmount(final int index, final BigDecimal amount, final long amountMinorUnits) {
+        if (decimalAmounts != null) {
+            decimalAmounts[index] = null;
+        }
+        long minorUnits = amountMinorUnits != CSVAmounts.NOT_MINOR_UNITS ? amountMinorUnits : CSVAmounts.toMinorUnits(amount);
+        if (amount == null) {
+            amountScales[index] = NULL_AMOUNT;
+        } else if (minorUnits == CSVAmounts.NOT_MINOR_UNITS) {
+            if (decimalAmounts == null) {
+                decimalAmounts = new BigDecimal[amounts.length];
+            }
+            decimalAmounts[index] = amount;
+            amountScales[index] = DECIMAL_AMOUNT;
+        } else {
+            amounts[index] = minorUnits;
+            amountScales[index] = (byte) amount.scale();
+        }
+    }
+
+    private void setRow(final int index, final CSVCreditIndicatorRow row) {
+        for (CSVCreditRowColumn column : CSVCreditRowColumn.values()) {
+            columns[column.ordinal()].set(index, column.getValue(row));
+        }
+        setDebitAmount(index, row.getDebitAmount(), row.getDebitAmountMinorUnits());
+    }
+
+    private CSVCreditIndicatorRow copyRow(final int index) {
+        return CSVCreditIndicatorRow.builder()
+                .creditIndicator(getValue(index, CSVCreditRowColumn.CREDIT_INDICATOR))
+                .recipientName(getValue(index, CSVCreditRowColumn.RECIPIENT_NAME))
+                .accNumber(getValue(index, CSVCreditRowColumn.ACC_NUMBER))
+                .recipientSortCode(getValue(index, CSVCreditRowColumn.RECIPIENT_SORT_CODE))
+                .reference(getValue(index, CSVCreditRowColumn.REFERENCE))
+                .debitAmount(getDebitAmount(index))
+                .paymentASAP(getValue(index, CSVCreditRowColumn.PAYMENT_ASAP))
+                .paymentDate(getValue(index, CSVCreditRowColumn.PAYMENT_DATE))
+                .eToEReference(getValue(index, CSVCreditRowColumn.E_TO_E_REFERENCE))
+                .build();
+    }
+
+    private void grow() {
+        int capacity = Math.max(amounts.length * 2, 16);
+        for (TextColumn column : columns) {
+            column.grow(capacity);
+        }
+        amounts = Arrays.copyOf(amounts, capacity);
+        amountScales = Arrays.copyOf(amountScales, capacity);
+        if (decimalAmounts != null) {
+            decimalAmounts = Arrays.copyOf(decimalAmounts, capacity);
+        }
+    }
+
+    private static TextColumn newColumn(final CSVCreditRowColumn.Encoding encoding, final int capacity) {
+        switch (encoding) {
+            case DICTIONARY:
+                return new DictionaryColumn(capacity);
+            case DIGITS:
+                return new DigitsColumn(capacity);
+            default:
+                return new PlainColumn(capacity);
+        }
+    }
+
+    private interface TextColumn {
+        String get(int index);
+
+        void set(int index, String value);
+
+        int count(int size, Predicate<String> predicate);
+
+        void remove(int index, int moved);
+
+        void clear();
+
+        void grow(int capacity);
+    }
+
+    /**
+     * Values held as they are, for the columns with mostly distinct values
+     */
+    private static final class PlainColumn implements TextColumn {
+        private String[] rows;
+
+        private PlainColumn(final int capacity) {
+            rows = new String[capacity];
+        }
+
+        @Override
+        public String get(final int index) {
+            return rows[index];
+        }
+
+        @Override
+        public void set(final int index, final String value) {
+            rows[index] = value;
+        }
+
+        @Override
+        public int count(final int size, final Predicate<String> predicate) {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (predicate.test(rows[i])) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public void remove(final int index, final int moved) {
+            System.arraycopy(rows, index + 1, rows, index, moved);
+            rows[index + moved] = null;
+        }
+
+        @Override
+        public void clear() {
+            Arrays.fill(rows, null);
+        }
+
+        @Override
+        public void grow(final int capacity) {
+            rows = Arrays.copyOf(rows, capacity);
+        }
+    }
+
+    /**
+     * Distinct values held once, the rows hold the code of their value
+     */
+    private static final class DictionaryColumn implements TextColumn {
+        private static final int NULL_CODE = -1;
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private int[] rows;
+
+        private DictionaryColumn(final int capacity) {
+            rows = new int[capacity];
+        }
+
+        @Override
+        public String get(final int index) {
+            int code = rows[index];
+            return code == NULL_CODE ? null : values.get(code);
+        }
+
+        @Override
+        public void set(final int index, final String value) {
+            rows[index] = value == null ? NULL_CODE : code(value);
+        }
+
+        private int code(final String value) {
+            return codes.computeIfAbsent(value, v -> {
+                values.add(v);
+                return values.size() - 1;
+            });
+        }
+
+        @Override
+        public int count(final int size, final Predicate<String> predicate) {
+            // result by code, null included at the end
+            Boolean[] matches = new Boolean[values.size() + 1];
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                int code = rows[i];
+                int slot = code == NULL_CODE ? values.size() : code;
+                Boolean match = matches[slot];
+                if (match == null) {
+                    match = predicate.test(code == NULL_CODE ? null : values.get(code));
+                    matches[slot] = match;
+                }
+                if (match) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public void remove(final int index, final int moved) {
+            System.arraycopy(rows, index + 1, rows, index, moved);
+        }
+
+        @Override
+        public void clear() {
+            codes.clear();
+            values.clear();
+        }
+
+        @Override
+        public void grow(final int capacity) {
+            rows = Arrays.copyOf(rows, capacity);
+        }
+    }
+
+    /**
+     * Digits packed with their length, to keep the leading zeros, the other values are dictionary encoded
+     */
+    private static final class DigitsColumn implements TextColumn {
+        private static final long NULL_VALUE = Long.MIN_VALUE;
+        private static final int MAX_DIGITS = 17;
+        private static final int LENGTH_BITS = 5;
+        private final DictionaryColumn others = new DictionaryColumn(0);
+        private long[] rows;
+
+        private DigitsColumn(final int capacity) {
+            rows = new long[capacity];
+        }
+
+        @Override
+        public String get(final int index) {
+            long packed = rows[index];
+            if (packed == NULL_VALUE) {
+                return null;
+            }
+            if (packed < 0) {
+                return others.values.get((int) ~packed);
+            }
+            char[] digits = new char[(int) (packed & ((1 << LENGTH_BITS) - 1))];
+            long value = packed >>> LENGTH_BITS;
+            for (int i = digits.length - 1; i >= 0; i--) {
+                digits[i] = (char) ('0' + value % 10);
+                value /= 10;
+            }
+            return new String(digits);
+        }
+
+        @Override
+        public void set(final int index, final String value) {
+            rows[index] = pack(value);
+        }
+
+        private long pack(final String value) {
+            if (value == null) {
+                return NULL_VALUE;
+            }
+            int length = value.length();
+            if (length == 0 || length > MAX_DIGITS) {
+                return ~(long) others.code(value);
+            }
+            long number = 0;
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c < '0' || c > '9') {
+                    return ~(long) others.code(value);
+                }
+                number = number * 10 + (c - '0');
+            }
+            return (number << LENGTH_BITS) | length;
+        }
+
+        @Override
+        public int count(final int size, final Predicate<String> predicate) {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (predicate.test(get(i))) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public void remove(final int index, final int moved) {
+            System.arraycopy(rows, index + 1, rows, index, moved);
+        }
+
+        @Override
+        public void clear() {
+            others.clear();
+        }
+
+        @Override
+        public void grow(final int capacity) {
+            rows = Arrays.copyOf(rows, capacity);
+        }
+    }
+}
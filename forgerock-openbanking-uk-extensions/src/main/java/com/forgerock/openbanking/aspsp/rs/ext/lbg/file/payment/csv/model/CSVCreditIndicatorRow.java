@@ -20,15 +20,18 @@
  */
 package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model;
 
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
+import java.io.IOException;
 import java.math.BigDecimal;
 
 @Data
-@Builder
 public class CSVCreditIndicatorRow {
     public final static String CREDIT_IND_EXPECTED = "C";
     private String creditIndicator;
@@ -40,25 +43,85 @@ public class CSVCreditIndicatorRow {
     private String paymentASAP;
     private String paymentDate;
     private String eToEReference;
+    // the debit amount decoded in minor units by the parser, not a value of the row, see CSVAmounts
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient long debitAmountMinorUnits = CSVAmounts.NOT_MINOR_UNITS;
 
-    protected String toCsvString(){
-        StringBuilder result = new StringBuilder();
+    @Builder
+    CSVCreditIndicatorRow(final String creditIndicator, final String recipientName, final String accNumber,
+                          final String recipientSortCode, final String reference, final BigDecimal debitAmount,
+                          final String paymentASAP, final String paymentDate, final String eToEReference) {
+        this.creditIndicator = creditIndicator;
+        this.recipientName = recipientName;
+        this.accNumber = accNumber;
+        this.recipientSortCode = recipientSortCode;
+        this.reference = reference;
+        this.debitAmount = debitAmount;
+        this.paymentASAP = paymentASAP;
+        this.paymentDate = paymentDate;
+        this.eToEReference = eToEReference;
+    }
 
-        //determine fields declared in this class only (no fields of superclass)
-        Field[] fields = this.getClass().getDeclaredFields();
+    public void setDebitAmount(BigDecimal debitAmount) {
+        this.debitAmount = debitAmount;
+        this.debitAmountMinorUnits = CSVAmounts.NOT_MINOR_UNITS;
+    }
 
-        //print field names paired with their values
-        for (Field field : fields) {
-            try {
-                if (Modifier.isPrivate(field.getModifiers()) && field.get(this) != null) {
-                    //requires access to private field:
-                    result.append(field.get(this)).append(",");
-                }
-            } catch (IllegalAccessException ex) {
-                System.out.println(ex);
-            }
-        }
+    /**
+     * Set the debit amount with its minor units decoded by the parser, see {@link CSVAmounts#setParsedDebitAmount}
+     */
+    void setDebitAmount(final BigDecimal debitAmount, final long debitAmountMinorUnits) {
+        this.debitAmount = debitAmount;
+        this.debitAmountMinorUnits = debitAmountMinorUnits;
+    }
+
+    /**
+     * @return the debit amount in minor units, {@link CSVAmounts#NOT_MINOR_UNITS} when it doesn't fit
+     */
+    public long getDebitAmountMinorUnits() {
+        return debitAmountMinorUnits != CSVAmounts.NOT_MINOR_UNITS ? debitAmountMinorUnits : CSVAmounts.toMinorUnits(debitAmount);
+    }
+
+    /**
+     * @return a copy of the values, a row of its own for a row view
+     */
+    public CSVCreditIndicatorRow copy() {
+        CSVCreditIndicatorRow copy = CSVCreditIndicatorRow.builder()
+                .creditIndicator(getCreditIndicator())
+                .recipientName(getRecipientName())
+                .accNumber(getAccNumber())
+                .recipientSortCode(getRecipientSortCode())
+                .reference(getReference())
+                .paymentASAP(getPaymentASAP())
+                .paymentDate(getPaymentDate())
+                .eToEReference(getEToEReference())
+                .build();
+        copy.setDebitAmount(getDebitAmount(), getDebitAmountMinorUnits());
+        return copy;
+    }
+
+    /**
+     * Append the CSV line of the values, without the null ones nor a line separator
+     *
+     * @param out destination
+     * @throws IOException the destination failed
+     */
+    protected void appendCsv(Appendable out) throws IOException {
+        boolean first = CSVRecordAppender.append(out, true, getCreditIndicator());
+        first = CSVRecordAppender.append(out, first, getRecipientName());
+        first = CSVRecordAppender.append(out, first, getAccNumber());
+        first = CSVRecordAppender.append(out, first, getRecipientSortCode());
+        first = CSVRecordAppender.append(out, first, getReference());
+        first = CSVRecordAppender.append(out, first, getDebitAmount());
+        first = CSVRecordAppender.append(out, first, getPaymentASAP());
+        first = CSVRecordAppender.append(out, first, getPaymentDate());
+        CSVRecordAppender.append(out, first, getEToEReference());
+    }
 
-        return result.toString().substring(0, result.length() - 1);
+    protected String toCsvString() {
+        return CSVRecordAppender.toCsvString(this::appendCsv);
     }
 }
@@ -0,0 +1,137 @@
+/**
+ * Copyright 2019 ForgeRock AS.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Credit indicator row reading and writing its values in the columns of {@link CSVCreditIndicatorColumns}
+ */
+final class CSVCreditIndicatorRowView extends CSVCreditIndicatorRow {
+    private final CSVCreditIndicatorColumns columns;
+    private final int index;
+
+    CSVCreditIndicatorRowView(final CSVCreditIndicatorColumns columns, final int index) {
+        super(null, null, null, null, null, null, null, null, null);
+        this.columns = columns;
+        this.index = index;
+    }
+
+    @Override
+    public String getCreditIndicator() {
+        return columns.getValue(index, CSVCreditRowColumn.CREDIT_INDICATOR);
+    }
+
+    @Override
+    public void setCreditIndicator(String creditIndicator) {
+        columns.setValue(index, CSVCreditRowColumn.CREDIT_INDICATOR, creditIndicator);
+    }
+
+    @Override
+    public String getRecipientName() {
+        return columns.getValue(index, CSVCreditRowColumn.RECIPIENT_NAME);
+    }
+
+    @Override
+    public void setRecipientName(String recipientName) {
+        columns.setValue(index, CSVCreditRowColumn.RECIPIENT_NAME, recipientName);
+    }
+
+    @Override
+    public String getAccNumber() {
+        return columns.getValue(index, CSVCreditRowColumn.ACC_NUMBER);
+    }
+
+    @Override
+    public void setAccNumber(String accNumber) {
+        columns.setValue(index, CSVCreditRowColumn.ACC_NUMBER, accNumber);
+    }
+
+    @Override
+    public String getRecipientSortCode() {
+        return columns.getValue(index, CSVCreditRowColumn.RECIPIENT_SORT_CODE);
+    }
+
+    @Override
+    public void setRecipientSortCode(String recipientSortCode) {
+        columns.setValue(index, CSVCreditRowColumn.RECIPIENT_SORT_CODE, recipientSortCode);
+    }
+
+    @Override
+    public String getReference() {
+        return columns.getValue(index, CSVCreditRowColumn.REFERENCE);
+    }
+
+    @Override
+    public void setReference(String reference) {
+        columns.setValue(index, CSVCreditRowColumn.REFERENCE, reference);
+    }
+
+    @Override
+    public BigDecimal getDebitAmount() {
+        return columns.getDebitAmount(index);
+    }
+
+    @Override
+    public void setDebitAmount(BigDecimal debitAmount) {
+        columns.setDebitAmount(index, debitAmount, CSVAmounts.NOT_MINOR_UNITS);
+    }
+
+    @Override
+    void setDebitAmount(final BigDecimal debitAmount, final long debitAmountMinorUnits) {
+        columns.setDebitAmount(index, debitAmount, debitAmountMinorUnits);
+    }
+
+    @Override
+    public long getDebitAmountMinorUnits() {
+        return columns.getDebitAmountMinorUnits(index);
+    }
+
+    @Override
+    public String getPaymentASAP() {
+        return columns.getValue(index, CSVCreditRowColumn.PAYMENT_ASAP);
+    }
+
+    @Override
+    public void setPaymentASAP(String paymentASAP) {
+        columns.setValue(index, CSVCreditRowColumn.PAYMENT_ASAP, paymentASAP);
+    }
+
+    @Override
+    public String getPaymentDate() {
+        return columns.getValue(index, CSVCreditRowColumn.PAYMENT_DATE);
+    }
+
+    @Override
+    public void setPaymentDate(String paymentDate) {
+        columns.setValue(index, CSVCreditRowColumn.PAYMENT_DATE, paymentDate);
+    }
+
+    @Override
+    public String getEToEReference() {
+        return columns.getValue(index, CSVCreditRowColumn.E_TO_E_REFERENCE);
+    }
+
+    @Override
+    public void setEToEReference(String eToEReference) {
+        columns.setValue(index, CSVCreditRowColumn.E_TO_E_REFERENCE, eToEReference);
+    }
+}
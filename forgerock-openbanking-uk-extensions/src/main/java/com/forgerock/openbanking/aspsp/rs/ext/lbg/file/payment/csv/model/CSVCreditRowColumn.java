@@ -0,0 +1,71 @@
+/**
+ * Copyright 2019 ForgeRock AS.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model;
+
+import java.util.function.Function;
+
+/**
+ * Text columns of the credit indicator rows, used to scan a column of all the rows, see
+ * {@link CSVFilePayment#countCreditRows(CSVCreditRowColumn, java.util.function.Predicate)}
+ */
+public enum CSVCreditRowColumn {
+    CREDIT_INDICATOR(CSVCreditIndicatorRow::getCreditIndicator, Encoding.DICTIONARY),
+    RECIPIENT_NAME(CSVCreditIndicatorRow::getRecipientName, Encoding.PLAIN),
+    ACC_NUMBER(CSVCreditIndicatorRow::getAccNumber, Encoding.DIGITS),
+    RECIPIENT_SORT_CODE(CSVCreditIndicatorRow::getRecipientSortCode, Encoding.DIGITS),
+    REFERENCE(CSVCreditIndicatorRow::getReference, Encoding.PLAIN),
+    PAYMENT_ASAP(CSVCreditIndicatorRow::getPaymentASAP, Encoding.DICTIONARY),
+    PAYMENT_DATE(CSVCreditIndicatorRow::getPaymentDate, Encoding.DICTIONARY),
+    E_TO_E_REFERENCE(CSVCreditIndicatorRow::getEToEReference, Encoding.PLAIN);
+
+    private final Function<CSVCreditIndicatorRow, String> getter;
+    // how the values are held in the columnar rows
+    private final Encoding encoding;
+
+    CSVCreditRowColumn(final Function<CSVCreditIndicatorRow, String> getter, final Encoding encoding) {
+        this.getter = getter;
+        this.encoding = encoding;
+    }
+
+    /**
+     * @param row credit indicator row
+     * @return the value of this column in the row
+     */
+    public String getValue(final CSVCreditIndicatorRow row) {
+        return getter.apply(row);
+    }
+
+    Encoding getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * Encoding of a column in the columnar rows, see {@link CSVCreditIndicatorColumns}
+     */
+    enum Encoding {
+        // low cardinality values, every distinct value is held once
+        DICTIONARY,
+        // values expected as digits, packed as numbers
+        DIGITS,
+        // values mostly distinct, held as they are
+        PLAIN
+    }
+}
@@ -23,11 +23,10 @@ package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model;
 import lombok.Builder;
 import lombok.Data;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
+import java.io.IOException;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class CSVDebitIndicatorSection {
     public final static String DEBIT_IND_EXPECTED = "D";
     private String debitIndicator;
@@ -35,24 +34,20 @@ public class CSVDebitIndicatorSection {
     private String batchReference;
     private String debitAccountDetails;
 
-    protected final String toCsvString() {
-        StringBuilder result = new StringBuilder();
-
-        //determine fields declared in this class only (no fields of superclass)
-        Field[] fields = this.getClass().getDeclaredFields();
-
-        //print field names paired with their values
-        for (Field field : fields) {
-            try {
-                if (Modifier.isPrivate(field.getModifiers()) && field.get(this) != null) {
-                    //requires access to private field:
-                    result.append(field.get(this)).append(",");
-                }
-            } catch (IllegalAccessException ex) {
-                System.out.println(ex);
-            }
-        }
+    /**
+     * Append the CSV line of the values, without the null ones nor a line separator
+     *
+     * @param out destination
+     * @throws IOException the destination failed
+     */
+    protected final void appendCsv(Appendable out) throws IOException {
+        boolean first = CSVRecordAppender.append(out, true, debitIndicator);
+        first = CSVRecordAppender.append(out, first, paymentDate);
+        first = CSVRecordAppender.append(out, first, batchReference);
+        CSVRecordAppender.append(out, first, debitAccountDetails);
+    }
 
-        return result.toString().substring(0, result.length() - 1);
+    protected final String toCsvString() {
+        return CSVRecordAppender.toCsvString(this::appendCsv);
     }
 }
@@ -0,0 +1,52 @@
+/**
+ * Copyright 2019 ForgeRock AS.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model;
+
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Columns of the records of a {@link com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory.CSVFilePaymentType}, in the file order:<br/>
+ * <li>A column reads its value from the section or the row, the values without a column are not part of the files of the type</li>
+ * <li>The records are as wide as the credit rows, the sections padded with empty values like the uploaded files</li>
+ * See {@link com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory.CSVFileTypeProvider#getLayout()}.
+ */
+@Value
+@Builder
+public class CSVFileLayout {
+    @Singular
+    List<Function<CSVHeaderIndicatorSection, Object>> headerColumns;
+    @Singular
+    List<Function<CSVDebitIndicatorSection, Object>> debitColumns;
+    @Singular
+    List<Function<CSVCreditIndicatorRow, Object>> creditRowColumns;
+
+    /**
+     * @return the number of columns of every record
+     */
+    public int getWidth() {
+        return creditRowColumns.size();
+    }
+}
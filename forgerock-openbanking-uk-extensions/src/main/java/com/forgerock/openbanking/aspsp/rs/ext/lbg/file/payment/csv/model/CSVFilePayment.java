@@ -21,13 +21,20 @@
 package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model;
 
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory.CSVFilePaymentType;
-import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation.CSVValidationService;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation.CSVDates;
 import com.forgerock.openbanking.common.model.openbanking.forgerock.filepayment.v3_0.FRFilePayment;
 
+import com.google.common.base.Preconditions;
+
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * CSV file payment interface model
@@ -51,11 +58,57 @@ public interface CSVFilePayment {
 
     List<FRFilePayment> toFRFilePaymentList();
 
+    /**
+     * Convert the credit rows lazily, as the stream is consumed, with the same creation time for the whole file.<br/>
+     * By default the stream of {@link #toFRFilePaymentList()}, converted at once.
+     *
+     * @return the file payments of the credit rows, in the rows order
+     */
+    default Stream<FRFilePayment> toFRFilePayments() {
+        return toFRFilePaymentList().stream();
+    }
+
+    /**
+     * Convert the credit rows by batches, a batch is converted once the previous one has been consumed
+     *
+     * @param batchSize     max number of file payments of a batch
+     * @param batchConsumer consumer of the batches, the batch list is reused once it returns
+     */
+    default void toFRFilePayments(int batchSize, Consumer<List<FRFilePayment>> batchConsumer) {
+        Preconditions.checkArgument(batchSize > 0, "batchSize must be positive: %s", batchSize);
+        List<FRFilePayment> batch = new ArrayList<>(batchSize);
+        Iterator<FRFilePayment> frFilePayments = toFRFilePayments().iterator();
+        while (frFilePayments.hasNext()) {
+            batch.add(frFilePayments.next());
+            if (batch.size() == batchSize || !frFilePayments.hasNext()) {
+                batchConsumer.accept(batch);
+                batch.clear();
+            }
+        }
+    }
+
     default BigDecimal getCreditRowsTotalDebitAmount() {
         return new BigDecimal(0.00).setScale(2, RoundingMode.CEILING);
     }
 
+    /**
+     * Count the credit rows with a value matching the predicate
+     *
+     * @param column    column to test
+     * @param predicate predicate on the values, null values included
+     * @return the number of rows matching
+     */
+    default int countCreditRows(CSVCreditRowColumn column, Predicate<String> predicate) {
+        int count = 0;
+        for (CSVCreditIndicatorRow row : getCreditIndicatorRows()) {
+            if (predicate.test(column.getValue(row))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
     default DateTimeFormatter getDateTimeFormatter() {
-        return DateTimeFormatter.ofPattern(CSVValidationService.DATE_FORMAT);
+        return CSVDates.DATE_FORMATTER;
     }
 }
@@ -27,9 +27,14 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.logging.log4j.util.Strings;
 import org.joda.time.DateTime;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 public class CSVFilePaymentImpl implements CSVFilePayment {
@@ -38,6 +43,9 @@ public class CSVFilePaymentImpl implements CSVFilePayment {
     private CSVDebitIndicatorSection debitIndicatorSection;
     private List<CSVCreditIndicatorRow> creditIndicatorRows;
     private final CSVFilePaymentType filePaymentType;
+    private static final String LINE_SEPARATOR = "\n";
+    // credit rows held by columns, see setColumnar(boolean)
+    private boolean columnar;
 
     public CSVFilePaymentImpl(final CSVFilePaymentType filePaymentType) {
         this.filePaymentType = filePaymentType;
@@ -70,29 +78,33 @@ public class CSVFilePaymentImpl implements CSVFilePayment {
 
     @Override
     public List<FRFilePayment> toFRFilePaymentList() {
-        List<FRFilePayment> frFilePaymentList = new ArrayList<>();
-        for (CSVCreditIndicatorRow csvCreditIndicatorRow : creditIndicatorRows) {
-            String e2eId = csvCreditIndicatorRow.getEToEReference() != null ? csvCreditIndicatorRow.getEToEReference() : Strings.EMPTY;
-            String remittanceUnstructured = csvCreditIndicatorRow.getReference() + (e2eId.isEmpty() ? e2eId : " - " + e2eId);
-            frFilePaymentList.add(
-                    FRFilePayment.builder()
-                            .instructionIdentification(headerIndicatorSection.getUniqueId())
-                            .endToEndIdentification(e2eId)
-                            .status(FRFilePayment.PaymentStatus.PENDING)
-                            .created(DateTime.now())
-                            .remittanceReference(csvCreditIndicatorRow.getReference())
-                            .remittanceUnstructured(remittanceUnstructured)
-                            .instructedAmount(
-                                    FRAmount.builder()
-                                            .amount(csvCreditIndicatorRow.getDebitAmount().toPlainString())
-                                            .currency(GBP).build()
-                            )
-                            .creditorAccountIdentification(csvCreditIndicatorRow.getAccNumber()
-                                    + csvCreditIndicatorRow.getRecipientSortCode())
-                            .build()
-            );
-        }
-        return frFilePaymentList;
+        return toFRFilePayments().collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    @Override
+    public Stream<FRFilePayment> toFRFilePayments() {
+        DateTime created = DateTime.now();
+        return creditIndicatorRows.stream().map(csvCreditIndicatorRow -> toFRFilePayment(csvCreditIndicatorRow, created));
+    }
+
+    private FRFilePayment toFRFilePayment(CSVCreditIndicatorRow csvCreditIndicatorRow, DateTime created) {
+        String e2eId = csvCreditIndicatorRow.getEToEReference() != null ? csvCreditIndicatorRow.getEToEReference() : Strings.EMPTY;
+        String remittanceUnstructured = csvCreditIndicatorRow.getReference() + (e2eId.isEmpty() ? e2eId : " - " + e2eId);
+        return FRFilePayment.builder()
+                .instructionIdentification(headerIndicatorSection.getUniqueId())
+                .endToEndIdentification(e2eId)
+                .status(FRFilePayment.PaymentStatus.PENDING)
+                .created(created)
+                .remittanceReference(csvCreditIndicatorRow.getReference())
+                .remittanceUnstructured(remittanceUnstructured)
+                .instructedAmount(
+                        FRAmount.builder()
+                                .amount(csvCreditIndicatorRow.getDebitAmount().toPlainString())
+                                .currency(GBP).build()
+                )
+                .creditorAccountIdentification(csvCreditIndicatorRow.getAccNumber()
+                        + csvCreditIndicatorRow.getRecipientSortCode())
+                .build();
     }
 
     @Override
@@ -102,25 +114,68 @@ public class CSVFilePaymentImpl implements CSVFilePayment {
 
     @Override
     public void setCreditIndicatorRows(List<CSVCreditIndicatorRow> creditIndicatorRows) {
-        this.creditIndicatorRows = creditIndicatorRows;
+        if (columnar && creditIndicatorRows != null && !(creditIndicatorRows instanceof CSVCreditIndicatorColumns)) {
+            CSVCreditIndicatorColumns columns = new CSVCreditIndicatorColumns(creditIndicatorRows.size());
+            columns.addAll(creditIndicatorRows);
+            this.creditIndicatorRows = columns;
+        } else {
+            this.creditIndicatorRows = creditIndicatorRows;
+        }
+    }
+
+    /**
+     * Hold the credit indicator rows by columns, see {@link CSVCreditIndicatorColumns}.<br/>
+     * The rows set are copied to the columns, unless they are columns already.
+     *
+     * @param columnar true to hold the credit rows by columns
+     */
+    public void setColumnar(final boolean columnar) {
+        this.columnar = columnar;
+        setCreditIndicatorRows(creditIndicatorRows);
+    }
+
+    public boolean isColumnar() {
+        return columnar;
+    }
+
+    @Override
+    public int countCreditRows(CSVCreditRowColumn column, Predicate<String> predicate) {
+        if (creditIndicatorRows instanceof CSVCreditIndicatorColumns) {
+            return ((CSVCreditIndicatorColumns) creditIndicatorRows).countRows(column, predicate);
+        }
+        return CSVFilePayment.super.countCreditRows(column, predicate);
     }
 
+    /**
+     * Sum of the debit amounts, accumulated in minor units, see {@link CSVAmounts}, on the columns when the rows are held by columns
+     *
+     * @return the sum, with the greatest scale of the amounts
+     */
     @Override
     public BigDecimal getCreditRowsTotalDebitAmount() {
-        return creditIndicatorRows.stream().map(CSVCreditIndicatorRow::getDebitAmount).reduce(BigDecimal::add).get();
+        return CSVAmounts.sumDebitAmounts(creditIndicatorRows);
     }
 
+    /**
+     * The records as CSV lines, the null values skipped, to log the file.<br/>
+     * Not the file layout, see {@link com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.writer.CSVFilePaymentWriter} to write the file.
+     */
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder();
-        sb.append(headerIndicatorSection.toCsvString());
-        sb.append("\n");
-        sb.append(debitIndicatorSection.toCsvString());
-        sb.append("\n");
-        creditIndicatorRows.stream().forEach(r -> {
-                    sb.append(r.toCsvString()).append("\n");
-                }
-        );
+        StringBuilder sb = new StringBuilder(128 + 64 * creditIndicatorRows.size());
+        try {
+            headerIndicatorSection.appendCsv(sb);
+            sb.append(LINE_SEPARATOR);
+            debitIndicatorSection.appendCsv(sb);
+            sb.append(LINE_SEPARATOR);
+            for (CSVCreditIndicatorRow row : creditIndicatorRows) {
+                row.appendCsv(sb);
+                sb.append(LINE_SEPARATOR);
+            }
+        } catch (IOException e) {
+            // a StringBuilder never fails
+            throw new UncheckedIOException(e);
+        }
         return sb.toString();
     }
 }
@@ -23,12 +23,11 @@ package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model;
 import lombok.Builder;
 import lombok.Data;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
+import java.io.IOException;
 import java.math.BigDecimal;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class CSVHeaderIndicatorSection {
     public final static String HEADER_IND_EXPECTED = "H";
     private String headerIndicator;
@@ -38,25 +37,21 @@ public class CSVHeaderIndicatorSection {
     private BigDecimal valueCreditsSum;
 
 
-    protected final String toCsvString() {
-
-        StringBuilder result = new StringBuilder();
-
-        //determine fields declared in this class only (no fields of superclass)
-        Field[] fields = this.getClass().getDeclaredFields();
-
-        //print field names paired with their values
-        for (Field field : fields) {
-            try {
-                if (Modifier.isPrivate(field.getModifiers()) && field.get(this) != null) {
-                    //requires access to private field:
-                    result.append(field.get(this)).append(",");
-                }
-            } catch (IllegalAccessException ex) {
-                System.out.println(ex);
-            }
-        }
+    /**
+     * Append the CSV line of the values, without the null ones nor a line separator
+     *
+     * @param out destination
+     * @throws IOException the destination failed
+     */
+    protected final void appendCsv(Appendable out) throws IOException {
+        boolean first = CSVRecordAppender.append(out, true, headerIndicator);
+        first = CSVRecordAppender.append(out, first, fileCreationDate);
+        first = CSVRecordAppender.append(out, first, uniqueId);
+        first = CSVRecordAppender.append(out, first, numCredits);
+        CSVRecordAppender.append(out, first, valueCreditsSum);
+    }
 
-        return result.toString().substring(0, result.length() - 1);
+    protected final String toCsvString() {
+        return CSVRecordAppender.toCsvString(this::appendCsv);
     }
 }
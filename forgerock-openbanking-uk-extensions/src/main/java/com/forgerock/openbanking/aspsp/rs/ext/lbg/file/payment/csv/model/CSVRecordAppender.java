@@ -0,0 +1,75 @@
+/**
+ * Copyright 2019 ForgeRock AS.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Append the values of a record as a CSV line, the null values are skipped:<br/>
+ * <pre>
+ * boolean first = CSVRecordAppender.append(out, true, value1);
+ * first = CSVRecordAppender.append(out, first, value2);
+ * </pre>
+ */
+final class CSVRecordAppender {
+
+    private CSVRecordAppender() {
+    }
+
+    /**
+     * @param out   destination
+     * @param first true when no value has been appended to the line yet
+     * @param value value appended when not null, preceded by a separator when not the first one
+     * @return true when still no value has been appended
+     * @throws IOException the destination failed
+     */
+    static boolean append(Appendable out, boolean first, Object value) throws IOException {
+        if (value == null) {
+            return first;
+        }
+        if (!first) {
+            out.append(',');
+        }
+        out.append(value instanceof String ? (String) value : value.toString());
+        return false;
+    }
+
+    /**
+     * @param record record appending itself
+     * @return the CSV line of the record
+     */
+    static String toCsvString(Record record) {
+        StringBuilder result = new StringBuilder(64);
+        try {
+            record.appendCsv(result);
+        } catch (IOException e) {
+            // a StringBuilder never fails
+            throw new UncheckedIOException(e);
+        }
+        return result.toString();
+    }
+
+    @FunctionalInterface
+    interface Record {
+        void appendCsv(Appendable out) throws IOException;
+    }
+}
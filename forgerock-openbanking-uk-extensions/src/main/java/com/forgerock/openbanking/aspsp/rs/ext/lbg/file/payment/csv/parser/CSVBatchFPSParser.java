@@ -24,26 +24,37 @@ import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.exception.CSV
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.exception.CSVErrorType;
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory.CSVFilePaymentType;
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVDebitIndicatorSection;
-import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.csv.CSVRecord;
 
-@Slf4j
+import java.io.Reader;
+import java.nio.ByteBuffer;
+
 public class CSVBatchFPSParser extends CSVParserImpl {
 
     public CSVBatchFPSParser(String content, CSVFilePaymentType csvFilePaymentType) {
         super(content, csvFilePaymentType);
     }
 
+    public CSVBatchFPSParser(Reader reader, CSVFilePaymentType csvFilePaymentType) {
+        super(reader, csvFilePaymentType);
+    }
+
+    public CSVBatchFPSParser(ByteBuffer content, CSVFilePaymentType csvFilePaymentType) {
+        super(content, csvFilePaymentType);
+    }
+
+    public CSVBatchFPSParser(CSVFilePaymentType csvFilePaymentType) {
+        super(csvFilePaymentType);
+    }
+
     @Override
-    public void setDebitIndicatorSection(final CSVRecord record) throws CSVErrorException {
+    protected CSVDebitIndicatorSection createDebitIndicatorSection(final CSVRecordFields record) throws CSVErrorException {
         try {
-            super.setDebitIndicatorSection(CSVDebitIndicatorSection.builder()
-                    .debitIndicator(getValue(record.get(0)))
-                    .batchReference(getValue(record.get(1)))
-                    .debitAccountDetails(getValue(record.get(2)))
-                    .build());
+            return CSVDebitIndicatorSection.builder()
+                    .debitIndicator(record.getValue(0))
+                    .batchReference(record.getValue(1))
+                    .debitAccountDetails(record.getValue(2))
+                    .build();
         } catch (Exception e) {
-            log.error("Error parsing the debit indicator section for payment type '{}'. {}{}", getCsvFilePaymentType().getFileType(), CSVErrorType.INVALID_FORMAT.getLogMessage(), e.toString());
             throw new CSVErrorException(CSVErrorType.INVALID_FORMAT, e.toString());
         }
     }
@@ -23,48 +23,57 @@ package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.parser;
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.exception.CSVErrorException;
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.exception.CSVErrorType;
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory.CSVFilePaymentType;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVAmounts;
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVCreditIndicatorRow;
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVDebitIndicatorSection;
-import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.csv.CSVRecord;
 
-import java.math.BigDecimal;
+import java.io.Reader;
+import java.nio.ByteBuffer;
 
-@Slf4j
 public class CSVBulkBACSParser extends CSVParserImpl {
 
     public CSVBulkBACSParser(String content, CSVFilePaymentType csvFilePaymentType) {
         super(content, csvFilePaymentType);
     }
 
+    public CSVBulkBACSParser(Reader reader, CSVFilePaymentType csvFilePaymentType) {
+        super(reader, csvFilePaymentType);
+    }
+
+    public CSVBulkBACSParser(ByteBuffer content, CSVFilePaymentType csvFilePaymentType) {
+        super(content, csvFilePaymentType);
+    }
+
+    public CSVBulkBACSParser(CSVFilePaymentType csvFilePaymentType) {
+        super(csvFilePaymentType);
+    }
+
     @Override
-    public void setDebitIndicatorSection(final CSVRecord record) throws CSVErrorException {
+    protected CSVDebitIndicatorSection createDebitIndicatorSection(final CSVRecordFields record) throws CSVErrorException {
         try {
-            super.setDebitIndicatorSection(CSVDebitIndicatorSection.builder()
-                    .debitIndicator(getValue(record.get(0)))
-                    .paymentDate(getValue(record.get(1)))
-                    .batchReference(getValue(record.get(2)))
-                    .debitAccountDetails(getValue(record.get(3)))
-                    .build());
+            return CSVDebitIndicatorSection.builder()
+                    .debitIndicator(record.getValue(0))
+                    .paymentDate(record.getValue(1))
+                    .batchReference(record.getValue(2))
+                    .debitAccountDetails(record.getValue(3))
+                    .build();
         } catch (Exception e) {
-            log.error("Error parsing the debit indicator section for payment type '{}'. {}{}", getCsvFilePaymentType().getFileType(), CSVErrorType.INVALID_FORMAT.getLogMessage(), e.toString());
             throw new CSVErrorException(CSVErrorType.INVALID_FORMAT, e.toString());
         }
     }
 
     @Override
-    public void setCreditIndicatorRow(CSVRecord record) throws CSVErrorException {
+    protected CSVCreditIndicatorRow createCreditIndicatorRow(final CSVRecordFields record) throws CSVErrorException {
         try {
-            super.setCreditIndicatorRow(CSVCreditIndicatorRow.builder()
-                    .creditIndicator(getValue(record.get(0)))
-                    .recipientName(getValue(record.get(1)))
-                    .recipientSortCode(getValue(record.get(2)))
-                    .accNumber(getValue(record.get(3)))
-                    .reference(getValue(record.get(4)))
-                    .debitAmount(getValue(record.get(5)) != null ? new BigDecimal(getValue(record.get(5))) : new BigDecimal(0))
-                    .build());
+            CSVCreditIndicatorRow row = CSVCreditIndicatorRow.builder()
+                    .creditIndicator(record.getValue(0))
+                    .recipientName(record.getValue(1))
+                    .recipientSortCode(record.getValue(2))
+                    .accNumber(record.getValue(3))
+                    .reference(record.getValue(4))
+                    .build();
+            return CSVAmounts.setParsedDebitAmount(row, record.getAmount(5), record.getAmountMinorUnits(5));
         } catch (Exception e) {
-            log.error("Error parsing the credit indicator row for payment type '{}'. {}{}", getCsvFilePaymentType().getFileType(), CSVErrorType.INVALID_FORMAT.getLogMessage(), e.toString());
             throw new CSVErrorException(CSVErrorType.INVALID_FORMAT, e.toString());
         }
     }
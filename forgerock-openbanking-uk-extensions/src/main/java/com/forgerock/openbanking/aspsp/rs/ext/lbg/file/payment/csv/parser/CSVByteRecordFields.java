@@ -0,0 +1,247 @@
+/**
+ * Copyright 2019 ForgeRock AS.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.parser;
+
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVAmounts;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Record fields held as offsets on the UTF-8 bytes of the content, nothing is decoded until a value is requested.<br/>
+ * The typed accessors decode straight from the bytes:
+ * <li>blank values are detected without building the string</li>
+ * <li>one character values share a constant string, e.g. the 'H', 'D', 'C' indicators and the 'Y'/'N' flags</li>
+ * <li>plain amounts and integers are decoded without a string, any other value takes the string path</li>
+ * <li>plain amounts with up to 2 decimals are decoded in minor units too, see {@link CSVAmounts}</li>
+ * The results are always the same as the string based accessors of {@link CSVRecordFields}.
+ */
+class CSVByteRecordFields implements CSVRecordFields {
+    private static final byte QUOTE = '"';
+    // Character.isWhitespace for the ascii characters
+    private static final boolean[] ASCII_WHITESPACES = new boolean[128];
+    private static final String[] ASCII_VALUES = new String[128];
+    // digits that always fit in a long unscaled value
+    private static final int MAX_LONG_DIGITS = 18;
+    private static final int MAX_INT_DIGITS = 9;
+    // never an unscaled value of up to 18 digits
+    private static final long NOT_DECODED = Long.MIN_VALUE;
+
+    static {
+        for (char c = 0; c < 128; c++) {
+            ASCII_WHITESPACES[c] = Character.isWhitespace(c);
+            ASCII_VALUES[c] = String.valueOf(c).intern();
+        }
+    }
+
+    private ByteBuffer content;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    // quoted fields with escaped quotes, the bytes have to be unescaped
+    private boolean[] escaped = new boolean[16];
+    private int fieldCount;
+    private byte[] scratch = new byte[64];
+    private int decodedScale;
+
+    static boolean isAsciiWhitespace(final byte c) {
+        return c >= 0 && ASCII_WHITESPACES[c];
+    }
+
+    /**
+     * @param content the bytes the field offsets refer to, read with absolute positions only
+     */
+    void setContent(final ByteBuffer content) {
+        this.content = content;
+    }
+
+    void clearFields() {
+        fieldCount = 0;
+    }
+
+    void addField(final int start, final int end, final boolean escapedQuotes) {
+        if (fieldCount == starts.length) {
+            starts = Arrays.copyOf(starts, fieldCount * 2);
+            ends = Arrays.copyOf(ends, fieldCount * 2);
+            escaped = Arrays.copyOf(escaped, fieldCount * 2);
+        }
+        starts[fieldCount] = start;
+        ends[fieldCount] = end;
+        escaped[fieldCount] = escapedQuotes;
+        fieldCount++;
+    }
+
+    int size() {
+        return fieldCount;
+    }
+
+    @Override
+    public String get(final int index) {
+        checkIndex(index);
+        return decode(index);
+    }
+
+    @Override
+    public String getValue(final int index) {
+        checkIndex(index);
+        if (escaped[index]) {
+            return CSVRecordFields.super.getValue(index);
+        }
+        int start = starts[index];
+        int end = ends[index];
+        if (end - start == 1) {
+            byte c = content.get(start);
+            if (c >= 0) {
+                return ASCII_WHITESPACES[c] ? null : ASCII_VALUES[c];
+            }
+        }
+        for (int i = start; i < end; i++) {
+            byte c = content.get(i);
+            if (c < 0) {
+                // non ascii whitespaces are checked on the string
+                return CSVRecordFields.super.getValue(index);
+            }
+            if (!ASCII_WHITESPACES[c]) {
+                return decode(index);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public BigDecimal getAmount(final int index) {
+        long unscaled = decodeUnscaled(index);
+        if (unscaled == NOT_DECODED) {
+            return CSVRecordFields.super.getAmount(index);
+        }
+        return BigDecimal.valueOf(unscaled, decodedScale);
+    }
+
+    @Override
+    public long getAmountMinorUnits(final int index) {
+        long unscaled = decodeUnscaled(index);
+        if (unscaled == NOT_DECODED) {
+            return CSVAmounts.NOT_MINOR_UNITS;
+        }
+        return CSVAmounts.toMinorUnits(unscaled, decodedScale);
+    }
+
+    /**
+     * Decode a plain decimal value: optional sign, digits and optional decimal point
+     *
+     * @return the unscaled value, with its scale in {@link #decodedScale}, or {@link #NOT_DECODED} for the others
+     */
+    private long decodeUnscaled(final int index) {
+        checkIndex(index);
+        int i = starts[index];
+        int end = ends[index];
+        if (escaped[index] || i == end) {
+            return NOT_DECODED;
+        }
+        byte c = content.get(i);
+        boolean negative = c == '-';
+        if (negative || c == '+') {
+            i++;
+        }
+        long unscaled = 0;
+        int digits = 0;
+        int scale = -1;
+        for (; i < end; i++) {
+            c = content.get(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > MAX_LONG_DIGITS) {
+                    return NOT_DECODED;
+                }
+                unscaled = unscaled * 10 + (c - '0');
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (c == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                // exponents, whitespaces, invalid values...
+                return NOT_DECODED;
+            }
+        }
+        if (digits == 0) {
+            return NOT_DECODED;
+        }
+        decodedScale = Math.max(scale, 0);
+        return negative ? -unscaled : unscaled;
+    }
+
+    @Override
+    public int getInt(final int index) {
+        checkIndex(index);
+        int i = starts[index];
+        int end = ends[index];
+        if (escaped[index] || i == end) {
+            return CSVRecordFields.super.getInt(index);
+        }
+        byte c = content.get(i);
+        boolean negative = c == '-';
+        if (negative || c == '+') {
+            i++;
+        }
+        int digits = end - i;
+        if (digits == 0 || digits > MAX_INT_DIGITS) {
+            return CSVRecordFields.super.getInt(index);
+        }
+        int value = 0;
+        for (; i < end; i++) {
+            c = content.get(i);
+            if (c < '0' || c > '9') {
+                return CSVRecordFields.super.getInt(index);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= fieldCount) {
+            // same failure as the string records
+            throw new ArrayIndexOutOfBoundsException("Index " + index + " out of bounds for length " + fieldCount);
+        }
+    }
+
+    private String decode(final int index) {
+        int start = starts[index];
+        int length = ends[index] - start;
+        if (!escaped[index] && content.hasArray()) {
+            return new String(content.array(), content.arrayOffset() + start, length, StandardCharsets.UTF_8);
+        }
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(scratch.length * 2, length)];
+        }
+        int scratchLength = 0;
+        for (int i = start; i < start + length; i++) {
+            byte c = content.get(i);
+            scratch[scratchLength++] = c;
+            if (c == QUOTE && escaped[index]) {
+                // the escaped quote is doubled
+                i++;
+            }
+        }
+        return new String(scratch, 0, scratchLength, StandardCharsets.UTF_8);
+    }
+}
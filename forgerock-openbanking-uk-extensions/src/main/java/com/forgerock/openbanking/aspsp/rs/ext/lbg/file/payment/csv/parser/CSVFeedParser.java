@@ -0,0 +1,364 @@
+/**
+ * Copyright 2019 ForgeRock AS.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.parser;
+
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.exception.CSVErrorException;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.exception.CSVErrorType;
+import com.forgerock.openbanking.exceptions.OBErrorException;
+import com.google.common.base.Preconditions;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Push parser for UTF-8 csv payment files, the content is fed in chunks as it arrives, e.g. network buffers.<br/>
+ * The parser state is kept between chunks, so a record, a quoted field or a CRLF can be split anywhere.
+ * Every record is passed to the {@link CSVParserImpl} as soon as it is complete, only the bytes of the current record
+ * are held by this parser and its values are decoded on demand, see {@link CSVByteRecordFields}.<br/>
+ * The csv format is the same as {@link org.apache.commons.csv.CSVFormat#DEFAULT}, used by {@link CSVParserImpl#parse()},
+ * so both produce the same payment file for the same content.<br/>
+ * The {@link CSVParserLimits} of the {@link CSVParserImpl} are checked while feeding: the size before parsing every chunk,
+ * so the chunk exceeding it is not parsed, and the line length while the line is read.<br/>
+ * Not thread safe, the chunks must be fed in order from one thread at a time.
+ */
+@Slf4j
+public class CSVFeedParser {
+    private static final byte DELIMITER = ',';
+    private static final byte QUOTE = '"';
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+
+    private enum State {
+        LINE_START, FIELD_START, SIMPLE, QUOTED, QUOTED_QUOTE, AFTER_QUOTED
+    }
+
+    private final CSVParserImpl parser;
+    private final long bytesLimit;
+    private final int lineLengthLimit;
+    private final int fieldsLimit;
+    // offsets in the content, of the first byte of the chunk part being consumed and of the current line
+    private long offset;
+    private long lineStart;
+    private State state = State.LINE_START;
+    private boolean completed;
+    // the LF following a CR belongs to the same end of line
+    private boolean skipLF;
+    private boolean quotedCR;
+    private long eolCounter;
+    private long quotedStartLine;
+    private long recordNumber;
+    // bytes of the current record fields, unescaped
+    private byte[] values = new byte[256];
+    private int valuesLength;
+    private int fieldStart;
+    private final CSVByteRecordFields record = new CSVByteRecordFields();
+    // non ascii character after a closing quote, only whitespaces are allowed
+    private int pendingContinuationBytes;
+    private int pendingCodePoint;
+    private byte[] directBuffer;
+
+    /**
+     * @param parser the parser of the records, its limits are read once here
+     */
+    public CSVFeedParser(final CSVParserImpl parser) {
+        this.parser = parser;
+        CSVParserLimits limits = parser.getLimits();
+        this.bytesLimit = limits.bytesLimit();
+        this.lineLengthLimit = limits.lineLengthLimit();
+        this.fieldsLimit = limits.fieldsLimit();
+        record.setContent(ByteBuffer.wrap(values));
+    }
+
+    public CSVFeedParser(final CSVParserImpl parser, final CSVRecordListener recordListener) {
+        this(parser);
+        parser.setRecordListener(recordListener);
+    }
+
+    /**
+     * Reset the parser to parse another content, the record buffers are kept, see {@link CSVParserImpl#reset(ByteBuffer)}
+     *
+     * @return this parser
+     */
+    public CSVFeedParser reset() {
+        parser.reset(null);
+        offset = 0;
+        lineStart = 0;
+        state = State.LINE_START;
+        completed = false;
+        skipLF = false;
+        quotedCR = false;
+        eolCounter = 0;
+        quotedStartLine = 0;
+        recordNumber = 0;
+        valuesLength = 0;
+        fieldStart = 0;
+        record.clearFields();
+        pendingContinuationBytes = 0;
+        pendingCodePoint = 0;
+        return this;
+    }
+
+    /**
+     * Parse the next chunk of the content, all the remaining bytes of the buffer are consumed
+     *
+     * @param chunk next bytes of the content
+     * @return this parser
+     * @throws CSVErrorException the content is not a valid payment file or exceeds a limit
+     */
+    public CSVFeedParser feed(final ByteBuffer chunk) throws CSVErrorException {
+        Preconditions.checkState(!completed, "The content has been completed already");
+        if (offset + chunk.remaining() > bytesLimit) {
+            throw limitError(CSVParserLimits.bytesExceeded(bytesLimit));
+        }
+        if (chunk.hasArray()) {
+            consume(chunk.array(), chunk.arrayOffset() + chunk.position(), chunk.arrayOffset() + chunk.limit());
+            chunk.position(chunk.limit());
+        } else {
+            if (directBuffer == null) {
+                directBuffer = new byte[8192];
+            }
+            while (chunk.hasRemaining()) {
+                int length = Math.min(chunk.remaining(), directBuffer.length);
+                chunk.get(directBuffer, 0, length);
+                consume(directBuffer, 0, length);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * End of the content, parse the last record and build the payment file
+     *
+     * @return the parser with the payment file
+     * @throws CSVErrorException the content is not a valid payment file
+     * @throws OBErrorException  type not supported
+     */
+    public CSVParser complete() throws OBErrorException {
+        Preconditions.checkState(!completed, "The content has been completed already");
+        completed = true;
+        switch (state) {
+            case QUOTED:
+                throw formatError(String.format("(startline %d) EOF reached before encapsulated token finished", quotedStartLine));
+            case AFTER_QUOTED:
+                if (pendingContinuationBytes > 0) {
+                    throw formatError(String.format("(line %d) invalid char between encapsulated token and delimiter", eolCounter + 1));
+                }
+                // the closing quote ends the last field
+            case FIELD_START:
+            case SIMPLE:
+            case QUOTED_QUOTE:
+                endField();
+                endRecord();
+                break;
+            default:
+                break;
+        }
+        return parser.complete();
+    }
+
+    private void consume(final byte[] bytes, final int from, final int to) throws CSVErrorException {
+        // offset of bytes[0]
+        long base = offset - from;
+        offset += to - from;
+        int i = from;
+        while (i < to) {
+            byte c = bytes[i];
+            if (skipLF) {
+                skipLF = false;
+                if (c == LF) {
+                    lineStart = base + i + 1;
+                    i++;
+                    continue;
+                }
+            }
+            switch (state) {
+                case LINE_START:
+                    // empty lines are ignored
+                    if (c == CR || c == LF) {
+                        endOfLine(c, base + i);
+                        i++;
+                    } else {
+                        state = State.FIELD_START;
+                    }
+                    break;
+                case FIELD_START:
+                    if (c == DELIMITER) {
+                        checkLineLength(base + i);
+                        endField();
+                        i++;
+                    } else if (c == CR || c == LF) {
+                        endField();
+                        endRecord();
+                        endOfLine(c, base + i);
+                        i++;
+                    } else if (c == QUOTE) {
+                        quotedStartLine = eolCounter + 1;
+                        state = State.QUOTED;
+                        i++;
+                    } else {
+                        state = State.SIMPLE;
+                    }
+                    break;
+                case SIMPLE: {
+                    int start = i;
+                    while (i < to && (c = bytes[i]) != DELIMITER && c != CR && c != LF) {
+                        i++;
+                    }
+                    checkLineLength(base + i);
+                    append(bytes, start, i - start);
+                    if (i < to) {
+                        endField();
+                        if (c == DELIMITER) {
+                            state = State.FIELD_START;
+                        } else {
+                            endRecord();
+                            endOfLine(c, base + i);
+                        }
+                        i++;
+                    }
+                    break;
+                }
+                case QUOTED: {
+                    int start = i;
+                    while (i < to && (c = bytes[i]) != QUOTE) {
+                        // line breaks are part of the value, counted for the error messages
+                        if (c == CR || (c == LF && !quotedCR)) {
+                            checkLineLength(base + i);
+                            eolCounter++;
+                        }
+                        if (c == CR || c == LF) {
+                            lineStart = base + i + 1;
+                        }
+                        quotedCR = c == CR;
+                        i++;
+                    }
+                    checkLineLength(base + i);
+                    append(bytes, start, i - start);
+                    if (i < to) {
+                        quotedCR = false;
+                        state = State.QUOTED_QUOTE;
+                        i++;
+                    }
+                    break;
+                }
+                case QUOTED_QUOTE:
+                    if (c == QUOTE) {
+                        // escaped quote
+                        append(bytes, i, 1);
+                        state = State.QUOTED;
+                        i++;
+                    } else {
+                        state = State.AFTER_QUOTED;
+                    }
+                    break;
+                case AFTER_QUOTED:
+                    afterQuoted(c, base + i);
+                    i++;
+                    break;
+            }
+        }
+    }
+
+    /**
+     * After the closing quote only whitespaces are allowed until the delimiter or the end of line
+     */
+    private void afterQuoted(final byte c, final long position) throws CSVErrorException {
+        checkLineLength(position);
+        if (pendingContinuationBytes > 0) {
+            if ((c & 0xC0) != 0x80) {
+                throw formatError(String.format("(line %d) invalid char between encapsulated token and delimiter", eolCounter + 1));
+            }
+            pendingCodePoint = (pendingCodePoint << 6) | (c & 0x3F);
+            if (--pendingContinuationBytes == 0 && !Character.isWhitespace(pendingCodePoint)) {
+                throw formatError(String.format("(line %d) invalid char between encapsulated token and delimiter", eolCounter + 1));
+            }
+        } else if (c == DELIMITER) {
+            endField();
+            state = State.FIELD_START;
+        } else if (c == CR || c == LF) {
+            endField();
+            endRecord();
+            endOfLine(c, position);
+        } else if (c < 0 && (c & 0xE0) == 0xC0) {
+            pendingCodePoint = c & 0x1F;
+            pendingContinuationBytes = 1;
+        } else if (c < 0 && (c & 0xF0) == 0xE0) {
+            pendingCodePoint = c & 0x0F;
+            pendingContinuationBytes = 2;
+        } else if (c < 0 || !Character.isWhitespace(c)) {
+            // 4 bytes characters are never whitespaces
+            throw formatError(String.format("(line %d) invalid char between encapsulated token and delimiter", eolCounter + 1));
+        }
+    }
+
+    private void endOfLine(final byte c, final long position) {
+        eolCounter++;
+        skipLF = c == CR;
+        state = State.LINE_START;
+        lineStart = position + 1;
+    }
+
+    /**
+     * @param position offset of the end of the part of the line read
+     */
+    private void checkLineLength(final long position) throws CSVErrorException {
+        if (position - lineStart > lineLengthLimit) {
+            throw limitError(CSVParserLimits.lineLengthExceeded(eolCounter + 1, lineLengthLimit));
+        }
+    }
+
+    private void append(final byte[] bytes, final int offset, final int length) {
+        if (valuesLength + length > values.length) {
+            values = Arrays.copyOf(values, Math.max(values.length * 2, valuesLength + length));
+            record.setContent(ByteBuffer.wrap(values));
+        }
+        System.arraycopy(bytes, offset, values, valuesLength, length);
+        valuesLength += length;
+    }
+
+    private void endField() throws CSVErrorException {
+        if (record.size() == fieldsLimit) {
+            throw limitError(CSVParserLimits.fieldsExceeded(recordNumber + 1, fieldsLimit));
+        }
+        record.addField(fieldStart, valuesLength, false);
+        fieldStart = valuesLength;
+    }
+
+    private void endRecord() throws CSVErrorException {
+        parser.setRecord(++recordNumber, record);
+        record.clearFields();
+        valuesLength = 0;
+        fieldStart = 0;
+    }
+
+    private CSVErrorException limitError(final CSVErrorException e) {
+        completed = true;
+        log.error("Error parsing the content for payment type '{}'. {}", parser.getCsvFilePaymentType().getFileType(), e.getMessage());
+        return e;
+    }
+
+    private CSVErrorException formatError(final String error) {
+        completed = true;
+        log.error("Error parsing the content for payment type '{}'. {}{}", parser.getCsvFilePaymentType().getFileType(), CSVErrorType.INVALID_FORMAT.getLogMessage(), error);
+        return new CSVErrorException(CSVErrorType.INVALID_FORMAT, error);
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright 2019 ForgeRock AS.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.parser;
+
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.exception.CSVErrorException;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reader enforcing the size and line length limits of {@link CSVParserLimits} on the characters read,
+ * the {@link CSVErrorException} is thrown from the read exceeding a limit, not logged.
+ */
+final class CSVLimitedReader extends FilterReader {
+    private final long bytesLimit;
+    private final int lineLengthLimit;
+    private long count;
+    private long lineNumber = 1;
+    private int lineLength;
+    private boolean cr;
+
+    CSVLimitedReader(final Reader reader, final CSVParserLimits limits) {
+        super(reader);
+        this.bytesLimit = limits.bytesLimit();
+        this.lineLengthLimit = limits.lineLengthLimit();
+    }
+
+    @Override
+    public int read() throws IOException {
+        int c = in.read();
+        if (c != -1) {
+            count(1);
+            checkLineLength((char) c);
+        }
+        return c;
+    }
+
+    @Override
+    public int read(final char[] cbuf, final int off, final int len) throws IOException {
+        int n = in.read(cbuf, off, len);
+        if (n <= 0) {
+            return n;
+        }
+        count(n);
+        for (int i = off; i < off + n; i++) {
+            checkLineLength(cbuf[i]);
+        }
+        return n;
+    }
+
+    private void count(final int n) {
+        count += n;
+        if (count > bytesLimit) {
+            throw CSVParserLimits.bytesExceeded(bytesLimit);
+        }
+    }
+
+    private void checkLineLength(final char c) {
+        if (c == '\r' || c == '\n') {
+            // the LF following a CR belongs to the same end of line
+            if (c == '\r' || !cr) {
+                lineNumber++;
+            }
+            lineLength = 0;
+        } else if (++lineLength > lineLengthLimit) {
+            throw CSVParserLimits.lineLengthExceeded(lineNumber, lineLengthLimit);
+        }
+        cr = c == '\r';
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+        throw new IOException("skip not supported");
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+}
@@ -24,60 +24,360 @@ import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.exception.CSV
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.exception.CSVErrorType;
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory.CSVFilePaymentFactory;
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory.CSVFilePaymentType;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVAmounts;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVCreditIndicatorColumns;
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVCreditIndicatorRow;
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVDebitIndicatorSection;
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVFilePayment;
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVHeaderIndicatorSection;
 import com.forgerock.openbanking.exceptions.OBErrorException;
 import com.forgerock.openbanking.model.error.OBRIErrorType;
+import com.google.common.base.Preconditions;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVRecord;
 
+import java.io.FilterReader;
 import java.io.IOException;
-import java.math.BigDecimal;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 @Slf4j
 public class CSVParserImpl implements CSVParser {
-    private final String content;
+    // chunks per pool thread, the chunks don't take the same time
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int MIN_CHUNK_SIZE = 16 * 1024;
+    // credit rows list presized from the header number of credits, up to this size
+    private static final int MAX_ROWS_PRESIZE = 1024;
+    private Reader reader;
+    private ByteBuffer content;
+    // tokenizer of the content kept for the next content, see reset(ByteBuffer)
+    private CSVRecordTokenizer tokenizer;
     private final CSVFilePaymentType csvFilePaymentType;
     private CSVFilePayment csvFilePayment;
+    private CSVRecordListener recordListener;
+    private ForkJoinPool parallelPool;
+    private long parallelThreshold;
+    private boolean columnar;
+    private boolean creditRowsRetained = true;
+    private CSVParserLimits limits = CSVParserLimits.NONE;
     // contents
     private CSVHeaderIndicatorSection csvHeaderIndicatorSection;
     private CSVDebitIndicatorSection csvDebitIndicatorSection;
 
+    // created with the first credit row
     private List<CSVCreditIndicatorRow> csvCreditIndicatorRowList;
+    private int creditRows;
 
     public CSVParserImpl(final String content, final CSVFilePaymentType csvFilePaymentType) {
+        this(new StringReader(content), csvFilePaymentType);
+    }
+
+    /**
+     * Parser reading the content from a character stream.<br/>
+     * The records are read one by one while parsing, so the content is never held in memory as a whole.
+     * The reader is not closed by the parser, it belongs to the caller.
+     *
+     * @param reader             the content source
+     * @param csvFilePaymentType {@link CSVFilePaymentType}
+     */
+    public CSVParserImpl(final Reader reader, final CSVFilePaymentType csvFilePaymentType) {
+        this(reader, null, csvFilePaymentType);
+    }
+
+    /**
+     * Parser reading the UTF-8 content from memory, e.g. a byte array or a mapped file.<br/>
+     * The records are tokenized on the bytes and only the values used by the sections are decoded,
+     * see {@link CSVRecordTokenizer}. The position and limit of the content are not changed by the parser.
+     *
+     * @param content            the content source, from its position to its limit
+     * @param csvFilePaymentType {@link CSVFilePaymentType}
+     */
+    public CSVParserImpl(final ByteBuffer content, final CSVFilePaymentType csvFilePaymentType) {
+        this(null, content, csvFilePaymentType);
+    }
+
+    private CSVParserImpl(final Reader reader, final ByteBuffer content, final CSVFilePaymentType csvFilePaymentType) {
+        this.reader = reader;
         this.content = content;
         this.csvFilePaymentType = csvFilePaymentType;
-        csvCreditIndicatorRowList = new ArrayList<>();
+    }
+
+    /**
+     * Parser without content source, the records are pushed by a {@link CSVFeedParser}
+     *
+     * @param csvFilePaymentType {@link CSVFilePaymentType}
+     */
+    public CSVParserImpl(final CSVFilePaymentType csvFilePaymentType) {
+        this(null, null, csvFilePaymentType);
     }
 
     @Override
     public CSVParser parse() throws OBErrorException {
+        if (content != null) {
+            return parseContent();
+        }
+        ContentReader source = new ContentReader(!limits.limitsCharacters() ? reader : new CSVLimitedReader(reader, limits));
         try {
-            org.apache.commons.csv.CSVParser parser = org.apache.commons.csv.CSVParser.parse(content, CSVFormat.DEFAULT);
+            org.apache.commons.csv.CSVParser parser = org.apache.commons.csv.CSVParser.parse(source, CSVFormat.DEFAULT);
+            int fieldsLimit = limits.fieldsLimit();
             parser.forEach(r -> {
-                if (r.getRecordNumber() == 1) {
-                    setHeaderIndicatorSection(r);
-                } else if (r.getRecordNumber() == 2) {
-                    setDebitIndicatorSection(r);
-                } else {
-                    setCreditIndicatorRow(r);
+                if (r.size() > fieldsLimit) {
+                    throw CSVParserLimits.fieldsExceeded(r.getRecordNumber(), fieldsLimit);
                 }
+                setRecord(r.getRecordNumber(), r::get);
             });
+        } catch (CSVErrorException e) {
+            // the sections errors are logged already
+            if (e.getCsvErrorType() == CSVErrorType.PARSE_LIMIT_EXCEEDED) {
+                logError(e);
+            }
+            throw e;
+        } catch (IllegalStateException e) {
+            // the iterator of Commons CSV wraps the IOException of the lexer and of the content
+            if (!(e.getCause() instanceof IOException)) {
+                throw e;
+            }
+            throw readError((IOException) e.getCause(), source);
         } catch (IOException ioException) {
-            log.error("Error parsing the content for payment type '{}'. {}{}", csvFilePaymentType.getFileType(), ioException);
-            throw new OBErrorException(OBRIErrorType.REQUEST_UNDEFINED_ERROR_YET, ioException.getMessage());
+            throw readError(ioException, source);
+        }
+        return complete();
+    }
+
+    /**
+     * Error reading the content: Commons CSV throws an IOException for the format errors of its lexer as well
+     * as for the failures of the content
+     *
+     * @param ioException the IOException thrown
+     * @param source      the content read
+     * @return {@link OBErrorException} for the failure of the content
+     * @throws CSVErrorException INVALID_FORMAT for a format error or malformed characters, as the tokenizer
+     */
+    private OBErrorException readError(final IOException ioException, final ContentReader source) throws CSVErrorException {
+        if (source.failure == ioException && !(ioException instanceof CharacterCodingException)) {
+            log.error("Error reading the content for payment type '{}'.", csvFilePaymentType.getFileType(), ioException);
+            return new OBErrorException(OBRIErrorType.REQUEST_UNDEFINED_ERROR_YET, ioException.getMessage());
+        }
+        CSVErrorException e = new CSVErrorException(CSVErrorType.INVALID_FORMAT, ioException.getMessage());
+        logError(e);
+        throw e;
+    }
+
+    private CSVParser parseContent() throws OBErrorException {
+        long bytesLimit = limits.bytesLimit();
+        if (content.remaining() > bytesLimit) {
+            CSVErrorException e = CSVParserLimits.bytesExceeded(bytesLimit);
+            logError(e);
+            throw e;
+        }
+        if (this.tokenizer == null) {
+            this.tokenizer = new CSVRecordTokenizer(content, limits);
+        } else {
+            this.tokenizer.reset(content, limits);
+        }
+        CSVRecordTokenizer tokenizer = this.tokenizer;
+        // header and debit sections
+        while (tokenizer.getRecordNumber() < 2 && nextRecord(tokenizer)) {
+            setRecord(tokenizer.getRecordNumber(), tokenizer);
+        }
+        if (parallelPool != null && content.limit() - tokenizer.getPosition() >= parallelThreshold) {
+            tokenizer = parseCreditRowsInParallel(tokenizer);
+        }
+        while (nextRecord(tokenizer)) {
+            setRecord(tokenizer.getRecordNumber(), tokenizer);
+        }
+        return complete();
+    }
+
+    private boolean nextRecord(final CSVRecordTokenizer tokenizer) throws CSVErrorException {
+        try {
+            return tokenizer.next();
+        } catch (CSVErrorException e) {
+            logError(e);
+            throw e;
+        }
+    }
+
+    private void logError(final CSVErrorException e) {
+        log.error("Error parsing the content for payment type '{}'. {}", csvFilePaymentType.getFileType(), e.getMessage());
+    }
+
+    /**
+     * Split the credit rows in chunks on line breaks, the chunks are parsed in the pool and their rows are set in
+     * the file order.<br/>
+     * A chunk is a speculation: a line break inside a quoted value splits a record, and then the chunk ending inside
+     * the quoted value fails. From the first chunk failing to tokenize, the remaining content is parsed sequentially,
+     * so the result and the errors are always the same as a sequential parsing.
+     *
+     * @param tokenizer tokenizer after the debit section
+     * @return tokenizer for the content left to parse sequentially
+     * @throws CSVErrorException the first credit row that doesn't match with the format
+     */
+    private CSVRecordTokenizer parseCreditRowsInParallel(final CSVRecordTokenizer tokenizer) throws CSVErrorException {
+        int end = content.limit();
+        int chunkSize = Math.max((end - tokenizer.getPosition()) / (parallelPool.getParallelism() * CHUNKS_PER_THREAD), MIN_CHUNK_SIZE);
+        List<CreditRowsChunk> chunks = new ArrayList<>();
+        for (int from = tokenizer.getPosition(); from < end; ) {
+            int to = nextLineStart((int) Math.min((long) from + chunkSize, end), end);
+            CreditRowsChunk chunk = new CreditRowsChunk(from, to);
+            parallelPool.execute(chunk);
+            chunks.add(chunk);
+            from = to;
+        }
+        long recordNumber = tokenizer.getRecordNumber();
+        long eolCounter = tokenizer.getEolCounter();
+        try {
+            for (CreditRowsChunk chunk : chunks) {
+                chunk.join();
+                if (chunk.formatError) {
+                    return new CSVRecordTokenizer(content, chunk.from, end, recordNumber, eolCounter, limits);
+                }
+                for (CSVCreditIndicatorRow row : chunk.rows) {
+                    checkCreditRowsLimit(creditRows + 1);
+                    setCreditIndicatorRow(row);
+                }
+                if (chunk.rowError != null) {
+                    // the limit is checked before the row as in a sequential parsing
+                    checkCreditRowsLimit(creditRows + 1);
+                    logSectionError(recordNumber + chunk.recordCount, chunk.rowError);
+                    throw chunk.rowError;
+                }
+                recordNumber += chunk.recordCount;
+                eolCounter += chunk.eolCounter;
+            }
+        } finally {
+            // the chunks left are not needed after an error
+            chunks.forEach(chunk -> chunk.cancel(false));
+        }
+        return new CSVRecordTokenizer(content, end, end, recordNumber, eolCounter, limits);
+    }
+
+    /**
+     * @return the position following the first line break from the position, or the limit
+     */
+    private int nextLineStart(final int position, final int limit) {
+        for (int i = position; i < limit; i++) {
+            byte c = content.get(i);
+            if (c == '\n') {
+                return i + 1;
+            }
+            if (c == '\r') {
+                return i + 1 < limit && content.get(i + 1) == '\n' ? i + 2 : i + 1;
+            }
+        }
+        return limit;
+    }
+
+    /**
+     * Credit rows of a range of the content, parsed until the first error, raised without logging: the range may not
+     * start on a record and the rows after an error before are not reached by a sequential parsing
+     */
+    private class CreditRowsChunk extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final List<CSVCreditIndicatorRow> rows = new ArrayList<>();
+        private CSVErrorException rowError;
+        private boolean formatError;
+        private long recordCount;
+        private long eolCounter;
+
+        private CreditRowsChunk(final int from, final int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            CSVRecordTokenizer tokenizer = new CSVRecordTokenizer(content, from, to, 0, 0, limits);
+            try {
+                while (tokenizer.next()) {
+                    try {
+                        rows.add(createCreditIndicatorRow(tokenizer));
+                    } catch (CSVErrorException e) {
+                        rowError = e;
+                        break;
+                    }
+                }
+            } catch (CSVErrorException e) {
+                formatError = true;
+            }
+            recordCount = tokenizer.getRecordNumber();
+            eolCounter = tokenizer.getEolCounter();
+        }
+    }
+
+    /**
+     * Set the record to the section that corresponds with the record number:<br/>
+     * <li>1: header indicator section</li>
+     * <li>2: debit indicator section</li>
+     * <li>others: credit indicator row</li>
+     * The credit rows limit is checked on the number of credits of the header and before every credit row.
+     *
+     * @param recordNumber the record number, starting at 1
+     * @param record       the record values
+     * @throws CSVErrorException the record values don't match with the section format or exceed the credit rows limit
+     */
+    protected void setRecord(final long recordNumber, final CSVRecordFields record) throws CSVErrorException {
+        if (recordNumber == 1) {
+            CSVHeaderIndicatorSection section = createSection(recordNumber, this::createHeaderIndicatorSection, record);
+            checkCreditRowsLimit(section.getNumCredits());
+            setHeaderIndicatorSection(section);
+        } else if (recordNumber == 2) {
+            setDebitIndicatorSection(createSection(recordNumber, this::createDebitIndicatorSection, record));
+        } else {
+            checkCreditRowsLimit(recordNumber - 2);
+            setCreditIndicatorRow(createSection(recordNumber, this::createCreditIndicatorRow, record));
+        }
+    }
+
+    /**
+     * Build a section, its error is logged here: the create methods only raise it, they also run in the pool threads
+     */
+    private <T> T createSection(final long recordNumber, final SectionFactory<T> factory, final CSVRecordFields record) throws CSVErrorException {
+        try {
+            return factory.create(record);
+        } catch (CSVErrorException e) {
+            logSectionError(recordNumber, e);
+            throw e;
         }
+    }
+
+    private void logSectionError(final long recordNumber, final CSVErrorException e) {
+        String section = recordNumber == 1 ? "header indicator section" : recordNumber == 2 ? "debit indicator section" : "credit indicator row";
+        log.error("Error parsing the {} for payment type '{}'. {}", section, csvFilePaymentType.getFileType(), e.getMessage());
+    }
 
-        csvFilePayment = CSVFilePaymentFactory.create(csvFilePaymentType);
+    @FunctionalInterface
+    private interface SectionFactory<T> {
+        T create(CSVRecordFields record) throws CSVErrorException;
+    }
+
+    private void checkCreditRowsLimit(final long creditRows) throws CSVErrorException {
+        long creditRowsLimit = limits.creditRowsLimit();
+        if (creditRows > creditRowsLimit) {
+            log.error("Error parsing the content for payment type '{}'. {}", csvFilePaymentType.getFileType(), CSVErrorType.NUMBER_CREDITS_ROWS_NOT_ALLOWED.format(creditRowsLimit, creditRows));
+            throw new CSVErrorException(CSVErrorType.NUMBER_CREDITS_ROWS_NOT_ALLOWED, creditRowsLimit, creditRows);
+        }
+    }
+
+    /**
+     * Build the payment file from the sections set
+     *
+     * @return this parser
+     * @throws OBErrorException type not supported
+     */
+    protected CSVParser complete() throws OBErrorException {
+        csvFilePayment = columnar ? CSVFilePaymentFactory.createColumnar(csvFilePaymentType) : CSVFilePaymentFactory.create(csvFilePaymentType);
         csvFilePayment.setHeaderIndicator(csvHeaderIndicatorSection);
         csvFilePayment.setDebitIndicator(csvDebitIndicatorSection);
-        csvFilePayment.setCreditIndicatorRows(csvCreditIndicatorRowList);
+        csvFilePayment.setCreditIndicatorRows(creditRowsRetained ? rows() : new ArrayList<>());
         return this;
     }
 
@@ -91,71 +391,223 @@ public class CSVParserImpl implements CSVParser {
         return csvFilePaymentType;
     }
 
-    @Override
-    public void setHeaderIndicatorSection(final CSVRecord record) throws CSVErrorException {
-        try {
-            csvHeaderIndicatorSection = CSVHeaderIndicatorSection.builder()
-                    .headerIndicator(getValue(record.get(0)))
-                    .fileCreationDate(getValue(record.get(1)))
-                    .uniqueId(getValue(record.get(2)))
-                    .numCredits(Integer.parseInt(getValue(record.get(3))))
-                    .valueCreditsSum(getValue(record.get(4)) != null ? new BigDecimal(getValue(record.get(4))) : new BigDecimal(0))
-                    .build();
-        } catch (Exception e) {
-            log.error("Error parsing the header indicator section for payment type '{}'. {}{}", csvFilePaymentType.getFileType(), CSVErrorType.INVALID_FORMAT.getLogMessage(), e.toString());
-            throw new CSVErrorException(CSVErrorType.INVALID_FORMAT, e.toString());
+    /**
+     * Parse the credit rows of the content in parallel, only for the parsers reading the content from memory.<br/>
+     * The credit rows are built with {@link #createCreditIndicatorRow(CSVRecordFields)} in the pool threads,
+     * the sections are still set and notified in the file order from the parsing thread.
+     * The create methods raise their errors without logging them, only the error thrown is logged, by the parsing thread.
+     *
+     * @param pool      pool parsing the credit rows
+     * @param threshold minimum size in bytes of the credit rows to parse them in parallel
+     */
+    public void setParallelParsing(final ForkJoinPool pool, final long threshold) {
+        this.parallelPool = pool;
+        this.parallelThreshold = threshold;
+    }
+
+    /**
+     * Hold the credit rows by columns instead of row objects, see {@link CSVCreditIndicatorColumns}.<br/>
+     * To set before parsing, the payment file built then holds its credit rows by columns, see {@link CSVFilePaymentFactory#createColumnar(CSVFilePaymentType)}.
+     *
+     * @param columnar true to hold the credit rows by columns
+     */
+    public void setColumnar(final boolean columnar) {
+        this.columnar = columnar;
+        csvCreditIndicatorRowList = null;
+    }
+
+    /**
+     * Keep the credit rows parsed for the payment file, true by default.<br/>
+     * Not kept, the rows are only passed to the {@link CSVRecordListener} and the payment file built has no credit rows,
+     * so the memory doesn't grow with the content, e.g. the rows validated and consumed as they are parsed.
+     *
+     * @param retained false not to keep the credit rows
+     */
+    public void setCreditRowsRetained(final boolean retained) {
+        this.creditRowsRetained = retained;
+        csvCreditIndicatorRowList = null;
+    }
+
+    /**
+     * Reset the parser to parse another UTF-8 content from memory, e.g. a pooled parser, see {@link CSVParserPool}.<br/>
+     * The settings are kept: limits, listener, columnar, credit rows retained and parallel parsing, as well as the tokenizer buffers.
+     * The payment file parsed before is not changed and the parser holds no reference to it any more.
+     *
+     * @param content the content source, from its position to its limit, null for the records pushed by a {@link CSVFeedParser}
+     * @return this parser
+     */
+    public CSVParserImpl reset(final ByteBuffer content) {
+        this.reader = null;
+        this.content = content;
+        csvFilePayment = null;
+        csvHeaderIndicatorSection = null;
+        csvDebitIndicatorSection = null;
+        csvCreditIndicatorRowList = null;
+        creditRows = 0;
+        if (tokenizer != null) {
+            tokenizer.release();
         }
+        return this;
+    }
+
+    /**
+     * Limits enforced while parsing, to set before parsing, none by default.<br/>
+     * The content exceeding a limit is not read further, see {@link CSVParserLimits}.
+     *
+     * @param limits {@link CSVParserLimits}
+     */
+    public void setLimits(final CSVParserLimits limits) {
+        this.limits = Preconditions.checkNotNull(limits, "limits");
+    }
+
+    CSVParserLimits getLimits() {
+        return limits;
+    }
+
+    /**
+     * Listener notified with every section set on this parser
+     *
+     * @param recordListener {@link CSVRecordListener}
+     */
+    public void setRecordListener(CSVRecordListener recordListener) {
+        this.recordListener = recordListener;
+    }
+
+    /**
+     * Final, the parsing doesn't call this method: the section is built by {@link #createHeaderIndicatorSection(CSVRecordFields)}, to override instead
+     */
+    @Override
+    public final void setHeaderIndicatorSection(final CSVRecord record) throws CSVErrorException {
+        setHeaderIndicatorSection(createSection(1, this::createHeaderIndicatorSection, record::get));
     }
 
     @Override
     public void setHeaderIndicatorSection(CSVHeaderIndicatorSection section) {
         csvHeaderIndicatorSection = section;
+        if (recordListener != null) {
+            recordListener.onHeaderIndicatorSection(section);
+        }
     }
 
+    /**
+     * Final, the parsing doesn't call this method: the section is built by {@link #createDebitIndicatorSection(CSVRecordFields)}, to override instead
+     */
     @Override
-    public void setDebitIndicatorSection(final CSVRecord record) throws CSVErrorException {
-        try {
-            csvDebitIndicatorSection = CSVDebitIndicatorSection.builder()
-                    .debitIndicator(getValue(record.get(0)))
-                    .batchReference(getValue(record.get(1)))
-                    .debitAccountDetails(getValue(record.get(2)))
-                    .build();
-        } catch (Exception e) {
-            log.error("Error parsing the debit indicator section for payment type '{}'. {}{}", csvFilePaymentType.getFileType(), CSVErrorType.INVALID_FORMAT.getLogMessage(), e.toString());
-            throw new CSVErrorException(CSVErrorType.INVALID_FORMAT, e.toString());
-        }
+    public final void setDebitIndicatorSection(final CSVRecord record) throws CSVErrorException {
+        setDebitIndicatorSection(createSection(2, this::createDebitIndicatorSection, record::get));
     }
 
     @Override
     public void setDebitIndicatorSection(CSVDebitIndicatorSection section) {
         csvDebitIndicatorSection = section;
+        if (recordListener != null) {
+            recordListener.onDebitIndicatorSection(section);
+        }
+    }
+
+    /**
+     * Final, the parsing doesn't call this method: the section is built by {@link #createCreditIndicatorRow(CSVRecordFields)}, to override instead
+     */
+    @Override
+    public final void setCreditIndicatorRow(final CSVRecord record) throws CSVErrorException {
+        setCreditIndicatorRow(createSection(record.getRecordNumber(), this::createCreditIndicatorRow, record::get));
     }
 
     @Override
-    public void setCreditIndicatorRow(final CSVRecord record) throws CSVErrorException {
+    public void setCreditIndicatorRow(CSVCreditIndicatorRow row) {
+        creditRows++;
+        if (creditRowsRetained) {
+            rows().add(row);
+        }
+        if (recordListener != null) {
+            recordListener.onCreditIndicatorRow(row);
+        }
+    }
+
+    private List<CSVCreditIndicatorRow> rows() {
+        if (csvCreditIndicatorRowList == null) {
+            if (columnar) {
+                csvCreditIndicatorRowList = new CSVCreditIndicatorColumns();
+            } else {
+                int numCredits = csvHeaderIndicatorSection != null ? csvHeaderIndicatorSection.getNumCredits() : 0;
+                csvCreditIndicatorRowList = numCredits > 0 ? new ArrayList<>(Math.min(numCredits, MAX_ROWS_PRESIZE)) : new ArrayList<>();
+            }
+        }
+        return csvCreditIndicatorRowList;
+    }
+
+    protected CSVHeaderIndicatorSection createHeaderIndicatorSection(final CSVRecordFields record) throws CSVErrorException {
         try {
-            csvCreditIndicatorRowList.add(
-                    CSVCreditIndicatorRow.builder()
-                            .creditIndicator(getValue(record.get(0)))
-                            .recipientName(getValue(record.get(1)))
-                            .accNumber(getValue(record.get(2)))
-                            .recipientSortCode(getValue(record.get(3)))
-                            .reference(getValue(record.get(4)))
-                            .debitAmount(getValue(record.get(5)) != null ? new BigDecimal(getValue(record.get(5))) : new BigDecimal(0))
-                            .paymentASAP(getValue(record.get(6)))
-                            .paymentDate(getValue(record.get(7)))
-                            .eToEReference(getValue(record.get(8)))
-                            .build()
-            );
+            return CSVHeaderIndicatorSection.builder()
+                    .headerIndicator(record.getValue(0))
+                    .fileCreationDate(record.getValue(1))
+                    .uniqueId(record.getValue(2))
+                    .numCredits(record.getInt(3))
+                    .valueCreditsSum(record.getAmount(4))
+                    .build();
         } catch (Exception e) {
-            log.error("Error parsing the credit indicator row for payment type '{}'. {}{}", csvFilePaymentType.getFileType(), CSVErrorType.INVALID_FORMAT.getLogMessage(), e.toString());
             throw new CSVErrorException(CSVErrorType.INVALID_FORMAT, e.toString());
         }
     }
 
-    @Override
-    public void setCreditIndicatorRow(CSVCreditIndicatorRow row) {
-        csvCreditIndicatorRowList.add(row);
+    protected CSVDebitIndicatorSection createDebitIndicatorSection(final CSVRecordFields record) throws CSVErrorException {
+        try {
+            return CSVDebitIndicatorSection.builder()
+                    .debitIndicator(record.getValue(0))
+                    .batchReference(record.getValue(1))
+                    .debitAccountDetails(record.getValue(2))
+                    .build();
+        } catch (Exception e) {
+            throw new CSVErrorException(CSVErrorType.INVALID_FORMAT, e.toString());
+        }
+    }
+
+    protected CSVCreditIndicatorRow createCreditIndicatorRow(final CSVRecordFields record) throws CSVErrorException {
+        try {
+            CSVCreditIndicatorRow row = CSVCreditIndicatorRow.builder()
+                    .creditIndicator(record.getValue(0))
+                    .recipientName(record.getValue(1))
+                    .accNumber(record.getValue(2))
+                    .recipientSortCode(record.getValue(3))
+                    .reference(record.getValue(4))
+                    .paymentASAP(record.getValue(6))
+                    .paymentDate(record.getValue(7))
+                    .eToEReference(record.getValue(8))
+                    .build();
+            return CSVAmounts.setParsedDebitAmount(row, record.getAmount(5), record.getAmountMinorUnits(5));
+        } catch (Exception e) {
+            throw new CSVErrorException(CSVErrorType.INVALID_FORMAT, e.toString());
+        }
     }
 
+    /**
+     * Content keeping its read failure, to tell it from the format errors of the lexer
+     */
+    private static final class ContentReader extends FilterReader {
+        private IOException failure;
+
+        private ContentReader(final Reader in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                return super.read();
+            } catch (IOException e) {
+                failure = e;
+                throw e;
+            }
+        }
+
+        @Override
+        public int read(final char[] cbuf, final int off, final int len) throws IOException {
+            try {
+                return super.read(cbuf, off, len);
+            } catch (IOException e) {
+                failure = e;
+                throw e;
+            }
+        }
+    }
 }
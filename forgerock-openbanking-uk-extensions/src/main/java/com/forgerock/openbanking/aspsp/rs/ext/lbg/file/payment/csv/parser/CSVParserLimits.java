@@ -0,0 +1,115 @@
+/**
+ * Copyright 2019 ForgeRock AS.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.parser;
+
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.exception.CSVErrorException;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.exception.CSVErrorType;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation.CSVValidation;
+import com.google.common.base.Preconditions;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Limits enforced by the parsers while reading the content, the parsing stops on the first limit exceeded:<br/>
+ * <li>maxBytes: size of the content, in characters for the character sources</li>
+ * <li>maxLineLength: length of every line without its line break, a line break in a quoted value starts a new line</li>
+ * <li>maxFieldsPerRecord: number of fields of every record</li>
+ * <li>maxCreditRows: number of credit rows, checked against the number of credits of the header as soon as it is parsed</li>
+ * A limit of 0 is not enforced. The credit rows limit fails with {@link CSVErrorType#NUMBER_CREDITS_ROWS_NOT_ALLOWED},
+ * the others with {@link CSVErrorType#PARSE_LIMIT_EXCEEDED}.
+ */
+@Value
+public class CSVParserLimits {
+    /**
+     * No limit, e.g. to parse the large files of the batch processing
+     */
+    public static final CSVParserLimits NONE = CSVParserLimits.builder().build();
+    /**
+     * Default of the upload-facing parsers: the streams, the channels, the push parsers, the pool and the async processors.<br/>
+     * Up to {@link CSVValidation#CREDIT_ROWS_ALLOWED} credit rows: a header announcing more credits fails before the credit rows are read
+     */
+    public static final CSVParserLimits DEFAULT = CSVParserLimits.builder()
+            .maxCreditRows(CSVValidation.CREDIT_ROWS_ALLOWED)
+            .build();
+    /**
+     * Limits of an uploaded payment file, up to {@link CSVValidation#CREDIT_ROWS_ALLOWED} credit rows
+     */
+    public static final CSVParserLimits UPLOAD = CSVParserLimits.builder()
+            .maxBytes(64 * 1024)
+            .maxLineLength(1024)
+            .maxFieldsPerRecord(16)
+            .maxCreditRows(CSVValidation.CREDIT_ROWS_ALLOWED)
+            .build();
+
+    private final long maxBytes;
+    private final int maxLineLength;
+    private final int maxFieldsPerRecord;
+    private final int maxCreditRows;
+
+    @Builder
+    private CSVParserLimits(final long maxBytes, final int maxLineLength, final int maxFieldsPerRecord, final int maxCreditRows) {
+        Preconditions.checkArgument(maxBytes >= 0, "maxBytes must not be negative: %s", maxBytes);
+        Preconditions.checkArgument(maxLineLength >= 0, "maxLineLength must not be negative: %s", maxLineLength);
+        Preconditions.checkArgument(maxFieldsPerRecord >= 0, "maxFieldsPerRecord must not be negative: %s", maxFieldsPerRecord);
+        Preconditions.checkArgument(maxCreditRows >= 0, "maxCreditRows must not be negative: %s", maxCreditRows);
+        this.maxBytes = maxBytes;
+        this.maxLineLength = maxLineLength;
+        this.maxFieldsPerRecord = maxFieldsPerRecord;
+        this.maxCreditRows = maxCreditRows;
+    }
+
+    // the limits for the comparisons, the max value when not enforced
+
+    /**
+     * @return true if the size or the line length is enforced, the limits checked on the characters read
+     */
+    boolean limitsCharacters() {
+        return maxBytes > 0 || maxLineLength > 0;
+    }
+
+    long bytesLimit() {
+        return maxBytes > 0 ? maxBytes : Long.MAX_VALUE;
+    }
+
+    int lineLengthLimit() {
+        return maxLineLength > 0 ? maxLineLength : Integer.MAX_VALUE;
+    }
+
+    int fieldsLimit() {
+        return maxFieldsPerRecord > 0 ? maxFieldsPerRecord : Integer.MAX_VALUE;
+    }
+
+    long creditRowsLimit() {
+        return maxCreditRows > 0 ? maxCreditRows : Long.MAX_VALUE;
+    }
+
+    static CSVErrorException bytesExceeded(final long limit) {
+        return new CSVErrorException(CSVErrorType.PARSE_LIMIT_EXCEEDED, "file size", limit);
+    }
+
+    static CSVErrorException lineLengthExceeded(final long line, final long limit) {
+        return new CSVErrorException(CSVErrorType.PARSE_LIMIT_EXCEEDED, "length of the line " + line, limit);
+    }
+
+    static CSVErrorException fieldsExceeded(final long recordNumber, final long limit) {
+        return new CSVErrorException(CSVErrorType.PARSE_LIMIT_EXCEEDED, "number of fields of the record " + recordNumber, limit);
+    }
+}
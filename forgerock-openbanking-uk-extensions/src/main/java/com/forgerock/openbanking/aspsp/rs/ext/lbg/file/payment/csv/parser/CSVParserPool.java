@@ -0,0 +1,155 @@
+/**
+ * Copyright 2019 ForgeRock AS.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.parser;
+
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.exception.CSVErrorException;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory.CSVFilePaymentType;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory.CSVFileTypeProvider;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory.CSVFileTypeRegistry;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVFilePayment;
+import com.forgerock.openbanking.exceptions.OBErrorException;
+import com.google.common.base.Preconditions;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Bounded pool of the parsers of a file type, for the many small contents parsed from memory.<br/>
+ * <li>A parser is taken for each content, reset on it and given back, keeping its tokenizer buffers</li>
+ * <li>The string contents are encoded in a byte buffer kept with the parser, up to maxRetainedBytes</li>
+ * <li>At most maxIdle parsers are kept, the parsers given back beyond are dropped</li>
+ * Thread safe, the payment files parsed are not shared.
+ */
+@Slf4j
+public class CSVParserPool {
+    private static final int DEFAULT_MAX_RETAINED_BYTES = 64 * 1024;
+    // upper bound of the UTF-8 bytes of a char, 4 bytes for the surrogate pairs
+    private static final int MAX_BYTES_PER_CHAR = 3;
+
+    private final CSVFileTypeProvider provider;
+    private final CSVParserLimits limits;
+    private final int maxRetainedBytes;
+    private final ArrayBlockingQueue<PooledParser> idle;
+
+    @Builder
+    private CSVParserPool(final CSVFilePaymentType type, final int maxIdle, final CSVParserLimits limits,
+                          final int maxRetainedBytes) throws OBErrorException {
+        Preconditions.checkNotNull(type, "Cannot have a null type");
+        Preconditions.checkArgument(maxIdle >= 0, "maxIdle must not be negative");
+        Preconditions.checkArgument(maxRetainedBytes >= 0, "maxRetainedBytes must not be negative");
+        this.provider = CSVFileTypeRegistry.getProvider(type);
+        this.limits = limits != null ? limits : CSVParserLimits.DEFAULT;
+        this.maxRetainedBytes = maxRetainedBytes > 0 ? maxRetainedBytes : DEFAULT_MAX_RETAINED_BYTES;
+        this.idle = new ArrayBlockingQueue<>(maxIdle > 0 ? maxIdle : 2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param content the UTF-8 file content
+     * @return the payment file parsed
+     * @throws OBErrorException the content is not a valid payment file or exceeds a limit
+     */
+    public CSVFilePayment parse(final byte[] content) throws OBErrorException {
+        return parse(ByteBuffer.wrap(content));
+    }
+
+    /**
+     * @param content the UTF-8 file content from its position to its limit, not changed
+     * @return the payment file parsed
+     * @throws OBErrorException the content is not a valid payment file or exceeds a limit
+     */
+    public CSVFilePayment parse(final ByteBuffer content) throws OBErrorException {
+        PooledParser pooled = take();
+        try {
+            return pooled.parser.reset(content).parse().getCsvFilePayment();
+        } finally {
+            giveBack(pooled);
+        }
+    }
+
+    /**
+     * @param content the file content, encoded in UTF-8 in a recycled buffer
+     * @return the payment file parsed
+     * @throws OBErrorException the content is not a valid payment file or exceeds a limit
+     */
+    public CSVFilePayment parse(final String content) throws OBErrorException {
+        // at least a byte per char, the content too large is not encoded
+        if (content.length() > limits.bytesLimit()) {
+            CSVErrorException e = CSVParserLimits.bytesExceeded(limits.bytesLimit());
+            log.error("Error parsing the content for payment type '{}'. {}", provider.getType().getFileType(), e.getMessage());
+            throw e;
+        }
+        PooledParser pooled = take();
+        try {
+            return pooled.parser.reset(pooled.encode(content)).parse().getCsvFilePayment();
+        } finally {
+            giveBack(pooled);
+        }
+    }
+
+    private PooledParser take() {
+        PooledParser pooled = idle.poll();
+        if (pooled == null) {
+            CSVParserImpl parser = provider.createParser();
+            parser.setLimits(limits);
+            pooled = new PooledParser(parser);
+        }
+        return pooled;
+    }
+
+    private void giveBack(final PooledParser pooled) {
+        pooled.parser.reset(null);
+        if (pooled.buffer != null && pooled.buffer.capacity() > maxRetainedBytes) {
+            pooled.buffer = null;
+        }
+        idle.offer(pooled);
+    }
+
+    private static final class PooledParser {
+        private final CSVParserImpl parser;
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private ByteBuffer buffer;
+
+        private PooledParser(final CSVParserImpl parser) {
+            this.parser = parser;
+        }
+
+        private ByteBuffer encode(final String content) {
+            int capacity = (int) Math.min(Integer.MAX_VALUE, (long) content.length() * MAX_BYTES_PER_CHAR);
+            if (buffer == null || buffer.capacity() < capacity) {
+                buffer = ByteBuffer.allocate(capacity);
+            }
+            buffer.clear();
+            encoder.reset();
+            encoder.encode(CharBuffer.wrap(content), buffer, true);
+            encoder.flush(buffer);
+            buffer.flip();
+            return buffer;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright 2019 ForgeRock AS.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.parser;
+
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVAmounts;
+
+import java.math.BigDecimal;
+
+/**
+ * Values of a csv record by column index, independent of the parser that read them.<br/>
+ * The typed accessors decode the raw value, byte level implementations override them to avoid the intermediate strings.
+ */
+@FunctionalInterface
+public interface CSVRecordFields {
+
+    /**
+     * @param index column index, starting at 0
+     * @return the raw value of the column
+     * @throws ArrayIndexOutOfBoundsException the record doesn't have that column
+     */
+    String get(int index);
+
+    /**
+     * @param index column index, starting at 0
+     * @return the value of the column, null when it is empty or blank
+     */
+    default String getValue(int index) {
+        String value = get(index);
+        return (value.isEmpty() | value.isBlank()) ? null : value;
+    }
+
+    /**
+     * @param index column index, starting at 0
+     * @return the decimal value of the column, zero when it is empty or blank
+     * @throws NumberFormatException not a decimal value
+     */
+    default BigDecimal getAmount(int index) {
+        String value = getValue(index);
+        return value != null ? new BigDecimal(value) : new BigDecimal(0);
+    }
+
+    /**
+     * Minor units of the decimal value, only decoded by the byte level implementations, the decimal value is used for the
+     * others, see {@link CSVAmounts}
+     *
+     * @param index column index, starting at 0
+     * @return the decimal value of the column in minor units, {@link CSVAmounts#NOT_MINOR_UNITS} when not decoded
+     */
+    default long getAmountMinorUnits(int index) {
+        return CSVAmounts.NOT_MINOR_UNITS;
+    }
+
+    /**
+     * @param index column index, starting at 0
+     * @return the integer value of the column
+     * @throws NumberFormatException not an integer value
+     */
+    default int getInt(int index) {
+        return Integer.parseInt(getValue(index));
+    }
+}
@@ -0,0 +1,278 @@
+/**
+ * Copyright 2019 ForgeRock AS.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.parser;
+
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.exception.CSVErrorException;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.exception.CSVErrorType;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Tokenizer for UTF-8 csv content already in memory, e.g. a byte array or a mapped file.<br/>
+ * Every record is split into field offsets on the content bytes, the values are only decoded when the parser
+ * requests them, see {@link CSVByteRecordFields}.<br/>
+ * The csv format is the same as {@link org.apache.commons.csv.CSVFormat#DEFAULT}, used by {@link CSVParserImpl#parse()}
+ * for the character sources, and {@link CSVFeedParser}.<br/>
+ * The content is read with absolute positions, its position and limit are never changed, so several tokenizers
+ * can work on different ranges of the same content.<br/>
+ * The line length and fields limits of {@link CSVParserLimits} are checked on every field.
+ */
+final class CSVRecordTokenizer extends CSVByteRecordFields {
+    private static final byte DELIMITER = ',';
+    private static final byte QUOTE = '"';
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+
+    private ByteBuffer content;
+    private int limit;
+    private int lineLengthLimit;
+    private int fieldsLimit;
+    private int position;
+    private int lineStart;
+    private long eolCounter;
+    private long recordNumber;
+
+    /**
+     * @param content the content from its position to its limit
+     * @param limits  {@link CSVParserLimits}
+     */
+    CSVRecordTokenizer(final ByteBuffer content, final CSVParserLimits limits) {
+        this(content, content.position(), content.limit(), 0, 0, limits);
+    }
+
+    /**
+     * @param content      the content
+     * @param from         position of the first record
+     * @param to           limit of the records
+     * @param recordNumber number of the records before the first one, for the record numbers
+     * @param eolCounter   number of line breaks before the first record, for the error messages
+     * @param limits       {@link CSVParserLimits}
+     */
+    CSVRecordTokenizer(final ByteBuffer content, final int from, final int to, final long recordNumber, final long eolCounter, final CSVParserLimits limits) {
+        reset(content, from, to, recordNumber, eolCounter, limits);
+    }
+
+    /**
+     * Tokenize another content, the fields arrays are kept
+     *
+     * @param content the content from its position to its limit
+     * @param limits  {@link CSVParserLimits}
+     */
+    void reset(final ByteBuffer content, final CSVParserLimits limits) {
+        reset(content, content.position(), content.limit(), 0, 0, limits);
+    }
+
+    /**
+     * Release the content, until the next reset
+     */
+    void release() {
+        clearFields();
+        this.content = null;
+        setContent(null);
+    }
+
+    private void reset(final ByteBuffer content, final int from, final int to, final long recordNumber, final long eolCounter, final CSVParserLimits limits) {
+        clearFields();
+        this.content = content;
+        this.position = from;
+        this.lineStart = from;
+        this.limit = to;
+        this.lineLengthLimit = limits.lineLengthLimit();
+        this.fieldsLimit = limits.fieldsLimit();
+        this.recordNumber = recordNumber;
+        this.eolCounter = eolCounter;
+        setContent(content);
+    }
+
+    /**
+     * Tokenize the next record, the fields of this tokenizer are replaced with its fields
+     *
+     * @return false when the end of the content is reached
+     * @throws CSVErrorException the content is not a valid csv content or exceeds a limit, not logged
+     */
+    boolean next() throws CSVErrorException {
+        clearFields();
+        // empty lines are ignored
+        while (position < limit) {
+            byte c = content.get(position);
+            if (c != CR && c != LF) {
+                break;
+            }
+            endOfLine(c);
+        }
+        if (position >= limit) {
+            return false;
+        }
+        recordNumber++;
+        while (true) {
+            if (position >= limit) {
+                // the end of the content after a delimiter is an empty last field
+                addField(position, position, false);
+                checkFields();
+                return true;
+            }
+            byte c = content.get(position);
+            if (c == QUOTE) {
+                quotedField();
+            } else {
+                int start = position;
+                while (position < limit && (c = content.get(position)) != DELIMITER && c != CR && c != LF) {
+                    position++;
+                }
+                addField(start, position, false);
+            }
+            checkLineLength();
+            checkFields();
+            if (position >= limit) {
+                return true;
+            }
+            c = content.get(position);
+            if (c != DELIMITER) {
+                endOfLine(c);
+                return true;
+            }
+            position++;
+        }
+    }
+
+    /**
+     * @return the number of the last record tokenized, starting at 1
+     */
+    long getRecordNumber() {
+        return recordNumber;
+    }
+
+    /**
+     * @return the number of line breaks read
+     */
+    long getEolCounter() {
+        return eolCounter;
+    }
+
+    /**
+     * @return the position following the last record tokenized
+     */
+    int getPosition() {
+        return position;
+    }
+
+    private void quotedField() throws CSVErrorException {
+        long startLine = eolCounter + 1;
+        int start = ++position;
+        boolean escapedQuotes = false;
+        boolean cr = false;
+        while (true) {
+            if (position >= limit) {
+                throw formatError(String.format("(startline %d) EOF reached before encapsulated token finished", startLine));
+            }
+            byte c = content.get(position);
+            if (c == QUOTE) {
+                if (position + 1 < limit && content.get(position + 1) == QUOTE) {
+                    escapedQuotes = true;
+                    cr = false;
+                    position += 2;
+                    continue;
+                }
+                addField(start, position++, escapedQuotes);
+                break;
+            }
+            // line breaks are part of the value, counted for the error messages
+            if (c == CR || (c == LF && !cr)) {
+                checkLineLength();
+                eolCounter++;
+            }
+            if (c == CR || c == LF) {
+                lineStart = position + 1;
+            }
+            cr = c == CR;
+            position++;
+        }
+        // after the closing quote only whitespaces are allowed until the delimiter or the end of line
+        while (position < limit) {
+            byte c = content.get(position);
+            if (c == DELIMITER || c == CR || c == LF) {
+                return;
+            }
+            if (!isAsciiWhitespace(c) && !isUTF8Whitespace(c)) {
+                throw formatError(String.format("(line %d) invalid char between encapsulated token and delimiter", eolCounter + 1));
+            }
+            position++;
+        }
+    }
+
+    private void checkLineLength() throws CSVErrorException {
+        if (position - lineStart > lineLengthLimit) {
+            throw CSVParserLimits.lineLengthExceeded(eolCounter + 1, lineLengthLimit);
+        }
+    }
+
+    private void checkFields() throws CSVErrorException {
+        if (size() > fieldsLimit) {
+            throw CSVParserLimits.fieldsExceeded(recordNumber, fieldsLimit);
+        }
+    }
+
+    /**
+     * Decode the non ascii character at the current position, leaving the position on its last byte
+     */
+    private boolean isUTF8Whitespace(final byte c) {
+        int continuationBytes;
+        int codePoint;
+        if ((c & 0xE0) == 0xC0) {
+            codePoint = c & 0x1F;
+            continuationBytes = 1;
+        } else if ((c & 0xF0) == 0xE0) {
+            codePoint = c & 0x0F;
+            continuationBytes = 2;
+        } else {
+            // 4 bytes characters are never whitespaces
+            return false;
+        }
+        for (; continuationBytes > 0; continuationBytes--) {
+            if (++position >= limit) {
+                return false;
+            }
+            byte next = content.get(position);
+            if ((next & 0xC0) != 0x80) {
+                return false;
+            }
+            codePoint = (codePoint << 6) | (next & 0x3F);
+        }
+        return Character.isWhitespace(codePoint);
+    }
+
+    private void endOfLine(final byte c) {
+        eolCounter++;
+        position++;
+        // the LF following a CR belongs to the same end of line
+        if (c == CR && position < limit && content.get(position) == LF) {
+            position++;
+        }
+        lineStart = position;
+    }
+
+    /**
+     * Not logged here, a tokenizer working on a speculative range fails on the ranges that don't start on a record
+     */
+    private CSVErrorException formatError(final String error) {
+        return new CSVErrorException(CSVErrorType.INVALID_FORMAT, error);
+    }
+}
@@ -0,0 +1,253 @@
+/**
+ * Copyright 2019 ForgeRock AS.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.pipeline;
+
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVFilePayment;
+import com.forgerock.openbanking.common.model.openbanking.forgerock.filepayment.v3_0.FRFilePayment;
+import com.google.common.base.Preconditions;
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Write the file payments of a payment file to a {@link FRFilePaymentSink} by batches:<br/>
+ * <li>The credit rows are converted while the batches before are written, by another thread</li>
+ * <li>At most <code>maxInFlightBatches</code> batches wait to be written, the conversion waits for the sink beyond</li>
+ * <li>A failed batch is written again up to <code>maxAttempts</code> times, waiting <code>retryDelay</code> times the attempts in between</li>
+ * <li>The conversion and the writes stop on the first batch not written, the batches before stay written</li>
+ * The writes must run on another thread than the caller, a direct or caller-runs executor is rejected.
+ */
+@Slf4j
+public final class CSVFilePaymentPipeline {
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    private static final int DEFAULT_MAX_IN_FLIGHT_BATCHES = 2;
+    private static final int DEFAULT_MAX_ATTEMPTS = 3;
+    private static final Duration DEFAULT_RETRY_DELAY = Duration.ofMillis(100);
+    // period of the checks for a failure or the writes stopped while waiting for a room in the queue
+    private static final long POLL_MILLIS = 50;
+    // end of the batches, queued once the conversion returned
+    private static final List<FRFilePayment> END_OF_BATCHES = Collections.emptyList();
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final FRFilePaymentSink sink;
+    private final int batchSize;
+    private final int maxInFlightBatches;
+    private final int maxAttempts;
+    private final Duration retryDelay;
+    private final Executor executor;
+
+    /**
+     * @param sink               destination of the file payments
+     * @param batchSize          max number of file payments of a batch, 500 by default
+     * @param maxInFlightBatches max number of batches waiting to be written, 2 by default
+     * @param maxAttempts        max number of writes of a batch, 3 by default
+     * @param retryDelay         delay before the second write of a batch, 100ms by default
+     * @param executor           executor running the writes on another thread than the caller, a shared pool of daemon threads by default
+     */
+    @Builder
+    private CSVFilePaymentPipeline(final FRFilePaymentSink sink, final int batchSize, final int maxInFlightBatches,
+                                   final int maxAttempts, final Duration retryDelay, final Executor executor) {
+        Preconditions.checkNotNull(sink, "Cannot have a null sink");
+        Preconditions.checkArgument(batchSize >= 0, "batchSize must not be negative: %s", batchSize);
+        Preconditions.checkArgument(maxInFlightBatches >= 0, "maxInFlightBatches must not be negative: %s", maxInFlightBatches);
+        Preconditions.checkArgument(maxAttempts >= 0, "maxAttempts must not be negative: %s", maxAttempts);
+        this.sink = sink;
+        this.batchSize = batchSize > 0 ? batchSize : DEFAULT_BATCH_SIZE;
+        this.maxInFlightBatches = maxInFlightBatches > 0 ? maxInFlightBatches : DEFAULT_MAX_IN_FLIGHT_BATCHES;
+        this.maxAttempts = maxAttempts > 0 ? maxAttempts : DEFAULT_MAX_ATTEMPTS;
+        this.retryDelay = retryDelay != null ? retryDelay : DEFAULT_RETRY_DELAY;
+        this.executor = executor != null ? executor : DefaultExecutor.INSTANCE;
+    }
+
+    /**
+     * Convert and write the file payments, returns once all the batches are written
+     *
+     * @param file payment file
+     * @return what has been written
+     * @throws CSVFilePaymentPipelineException a batch not written, or the run interrupted
+     * @throws IllegalStateException           the executor ran the writes on the calling thread
+     */
+    public Summary run(CSVFilePayment file) throws CSVFilePaymentPipelineException {
+        Run run = new Run(Thread.currentThread());
+        CompletableFuture<Void> written = CompletableFuture.runAsync(run::write, executor);
+        Preconditions.checkState(!run.callerRuns, "The executor must run the writes on another thread than the caller");
+        try {
+            file.toFRFilePayments(batchSize, run::put);
+        } catch (RuntimeException e) {
+            run.fail(e);
+        } finally {
+            run.close();
+        }
+        written.join();
+        if (run.failure != null) {
+            throw run.failure instanceof CSVFilePaymentPipelineException ? (CSVFilePaymentPipelineException) run.failure
+                    : new CSVFilePaymentPipelineException(run.summary.getBatches() + 1, "File payments conversion failed", run.failure);
+        }
+        return run.summary;
+    }
+
+    /**
+     * State of a run, shared by the converting thread and the writing thread
+     */
+    private class Run {
+        private final BlockingQueue<List<FRFilePayment>> queue = new ArrayBlockingQueue<>(maxInFlightBatches);
+        private final Summary summary = new Summary();
+        private final Thread converter;
+        // batches put, by the converting thread
+        private long queued;
+        // first failure, stops the conversion and the writes
+        private volatile RuntimeException failure;
+        // the writing thread returned, or died
+        private volatile boolean writerDone;
+        // the writes were run on the converting thread, nothing written
+        private volatile boolean callerRuns;
+
+        private Run(final Thread converter) {
+            this.converter = converter;
+        }
+
+        private synchronized void fail(RuntimeException e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+
+        /**
+         * Converting thread: queue a copy of the batch, waiting for a room
+         */
+        private void put(List<FRFilePayment> batch) {
+            List<FRFilePayment> copy = new ArrayList<>(batch);
+            try {
+                do {
+                    if (failure != null) {
+                        throw failure;
+                    } else if (writerDone) {
+                        throw new CSVFilePaymentPipelineException(queued + 1, "File payments writes stopped", null);
+                    }
+                } while (!queue.offer(copy, POLL_MILLIS, TimeUnit.MILLISECONDS));
+                queued++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CSVFilePaymentPipelineException(queued + 1, "File payments conversion interrupted", e);
+            }
+        }
+
+        /**
+         * Converting thread: queue the end of the batches, unless the writing thread is gone.
+         * The writing thread drains the queue, even after a failure, an interrupt only delays the end.
+         */
+        private void close() {
+            boolean interrupted = false;
+            while (!writerDone) {
+                try {
+                    if (queue.offer(END_OF_BATCHES, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                        break;
+                    }
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Writing thread: write the batches until the end of the batches, only dropping them after a failure
+         */
+        private void write() {
+            if (Thread.currentThread() == converter) {
+                // a direct or caller-runs executor, the writes would wait for the conversion forever
+                callerRuns = true;
+                writerDone = true;
+                return;
+            }
+            long batchNumber = 0;
+            try {
+                while (true) {
+                    List<FRFilePayment> batch = queue.take();
+                    if (batch == END_OF_BATCHES) {
+                        return;
+                    }
+                    if (failure == null) {
+                        write(++batchNumber, batch);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(new CSVFilePaymentPipelineException(batchNumber, "File payments writes interrupted", e));
+            } finally {
+                writerDone = true;
+            }
+        }
+
+        private void write(long batchNumber, List<FRFilePayment> batch) throws InterruptedException {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    sink.write(batch);
+                    summary.batches++;
+                    summary.payments += batch.size();
+                    return;
+                } catch (RuntimeException e) {
+                    if (attempt >= maxAttempts) {
+                        log.error("Batch {} of {} file payments not written after {} attempts", batchNumber, batch.size(), attempt, e);
+                        fail(new CSVFilePaymentPipelineException(batchNumber,
+                                String.format("Batch %d not written after %d attempts", batchNumber, attempt), e));
+                        return;
+                    }
+                    log.warn("Batch {} of {} file payments not written, attempt {} of {}: {}", batchNumber, batch.size(), attempt, maxAttempts, e.toString());
+                    summary.retries++;
+                    Thread.sleep(retryDelay.toMillis() * attempt);
+                }
+            }
+        }
+    }
+
+    /**
+     * Shared pool of daemon threads running the writes, a thread by run writing
+     */
+    private static final class DefaultExecutor {
+        private static final Executor INSTANCE = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "csv-file-payment-pipeline-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Data
+    public static class Summary {
+        private long batches;
+        private long payments;
+        private long retries;
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Copyright 2019 ForgeRock AS.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.pipeline;
+
+import com.forgerock.openbanking.common.model.openbanking.forgerock.filepayment.v3_0.FRFilePayment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sink keeping the file payments in memory, for tests
+ */
+public class InMemoryFRFilePaymentSink implements FRFilePaymentSink {
+    private final List<FRFilePayment> payments = new ArrayList<>();
+    private int batches;
+
+    @Override
+    public synchronized void write(List<FRFilePayment> batch) {
+        payments.addAll(batch);
+        batches++;
+    }
+
+    /**
+     * @return the file payments written, in the order written
+     */
+    public synchronized List<FRFilePayment> getPayments() {
+        return Collections.unmodifiableList(new ArrayList<>(payments));
+    }
+
+    /**
+     * @return the number of batches written
+     */
+    public synchronized int getBatches() {
+        return batches;
+    }
+}
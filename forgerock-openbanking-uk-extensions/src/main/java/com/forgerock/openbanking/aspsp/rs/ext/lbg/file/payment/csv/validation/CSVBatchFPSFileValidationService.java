@@ -22,6 +22,8 @@ package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation;
 
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVFilePayment;
 
+import java.time.Clock;
+
 public class CSVBatchFPSFileValidationService extends CSVValidationService {
     private final CSVFilePayment file;
 
@@ -29,4 +31,23 @@ public class CSVBatchFPSFileValidationService extends CSVValidationService {
         super(file);
         this.file = file;
     }
+
+    /**
+     * @param file  payment file to validate
+     * @param clock clock of the processing day
+     */
+    public CSVBatchFPSFileValidationService(final CSVFilePayment file, final Clock clock) {
+        super(file, clock);
+        this.file = file;
+    }
+
+    /**
+     * @param file                payment file to validate
+     * @param clock               clock of the processing day
+     * @param creditRowsValidator validator of the {@link #CREDIT_ROW_RULES} shared by the validations
+     */
+    public CSVBatchFPSFileValidationService(final CSVFilePayment file, final Clock clock, final CSVCreditRowsValidator creditRowsValidator) {
+        super(file, clock, creditRowsValidator);
+        this.file = file;
+    }
 }
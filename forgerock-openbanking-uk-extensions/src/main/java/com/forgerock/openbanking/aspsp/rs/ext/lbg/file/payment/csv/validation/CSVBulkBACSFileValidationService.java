@@ -20,18 +20,25 @@
  */
 package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation;
 
-import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.exception.CSVErrorException;
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.exception.CSVErrorType;
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVFilePayment;
 import lombok.extern.slf4j.Slf4j;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
-import java.time.temporal.TemporalAccessor;
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 @Slf4j
 public class CSVBulkBACSFileValidationService extends CSVValidationService {
+    /**
+     * Credit Rows rules, the payment date is validated in the debit section:<br/>
+     * <li>{@link #CREDIT_INDICATOR_RULE}</li>
+     * <li>{@link #REFERENCE_RULE}</li>
+     * <li>{@link #CREDIT_SUM_RULE}</li>
+     */
+    public static final List<CSVCreditRowRule> CREDIT_ROW_RULES = Collections.unmodifiableList(
+            Arrays.asList(CREDIT_INDICATOR_RULE, REFERENCE_RULE, CREDIT_SUM_RULE));
     private final CSVFilePayment file;
 
     public CSVBulkBACSFileValidationService(final CSVFilePayment file) {
@@ -39,6 +46,25 @@ public class CSVBulkBACSFileValidationService extends CSVValidationService {
         this.file = file;
     }
 
+    /**
+     * @param file  payment file to validate
+     * @param clock clock of the processing day
+     */
+    public CSVBulkBACSFileValidationService(final CSVFilePayment file, final Clock clock) {
+        super(file, clock);
+        this.file = file;
+    }
+
+    /**
+     * @param file                payment file to validate
+     * @param clock               clock of the processing day
+     * @param creditRowsValidator validator of the {@link #CREDIT_ROW_RULES} shared by the validations
+     */
+    public CSVBulkBACSFileValidationService(final CSVFilePayment file, final Clock clock, final CSVCreditRowsValidator creditRowsValidator) {
+        super(file, clock, creditRowsValidator);
+        this.file = file;
+    }
+
     /**
      * Debit section validation:<br/>
      * <li>Debit indicator must be 'D', not null, not empty or blank</li>
@@ -46,30 +72,21 @@ public class CSVBulkBACSFileValidationService extends CSVValidationService {
      */
     protected void validateDebitIndicator() {
         super.validateDebitIndicator();
-        validatePaymentDate(file.getDebitIndicatorSection().getPaymentDate());
+        // without debit section only collecting errors reaches this point
+        if (file.getDebitIndicatorSection() != null) {
+            validatePaymentDate(file.getDebitIndicatorSection().getPaymentDate());
+        }
     }
 
     /**
-     * Credit Rows section validation:<br/>
-     * <li>Not allowed more than 25 credit rows</li>
-     * <li>The number of credits value from header section match with the number of credit rows</li>
-     * <li>The credit value from header match with the sum of debit amount of credit rows</li>
+     * Credit Rows section validation, the payment date is validated in the debit section:<br/>
      * <li>The credit row indicator must be 'C', not null, not empty or blank</li>
      * <li>The reference not contains the word 'CONTRA', case insensitive, accepted it is part of another string</li>
+     * <li>The credit value from header match with the sum of debit amount of credit rows</li>
      */
     @Override
-    protected void validateCreditRows() {
-        checkNotNull(file.getCreditIndicatorRows(), "Credit Indicator Rows");
-        if (file.getCreditIndicatorRows().isEmpty()) {
-            log.error("{} There are no 'Credit Indicator Rows'.", CSVErrorType.INVALID_FORMAT.getLogMessage());
-            throw new CSVErrorException(CSVErrorType.INVALID_FORMAT);
-        } else {
-            validateCreditRowsAllowed();
-            validateNumberOfCredits();
-            validateCreditRowsIndicator();
-            validateCreditRowsReference();
-            validateCreditSum();
-        }
+    protected List<CSVCreditRowRule> creditRowRules() {
+        return CREDIT_ROW_RULES;
     }
 
     /**
@@ -81,29 +98,21 @@ public class CSVBulkBACSFileValidationService extends CSVValidationService {
      */
     @Override
     protected void validatePaymentDate(String date) {
-        DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern(DATE_FORMAT);
-        try {
-            TemporalAccessor ta = dateTimeFormatter.parse(date);
-            LocalDate ldtToday = LocalDate.now();
-            LocalDate ldtRow = LocalDate.from(ta);
-            // the date cannot be in the past, compare with today
-            if (ldtRow.compareTo(ldtToday) < 0) {
-                log.error(CSVErrorType.INVALID_PAYMENT_DATE.getLogMessage(), date);
-                throw new CSVErrorException(CSVErrorType.INVALID_PAYMENT_DATE, date);
-            } else if (ldtRow.compareTo(ldtToday.plusDays(PAYMENT_LATER_DAYS)) < 0) {
-                // the payment date must be beyond 2 days later from processing day (now)
-                log.error(CSVErrorType.INVALID_PAYMENT_DATE_LATER_DAYS.getLogMessage(), date, PAYMENT_LATER_DAYS);
-                throw new CSVErrorException(CSVErrorType.INVALID_PAYMENT_DATE_LATER_DAYS, date, PAYMENT_LATER_DAYS);
-            } else {
-                // the payment date cannot be beyond 31 days from processing day (now)
-                if (ldtToday.plusDays(BEYOND_PAYMENT_DAYS).compareTo(ldtRow) < 0) {
-                    log.error(CSVErrorType.INVALID_PAYMENT_BEYOND_DATE.getLogMessage(), date, BEYOND_PAYMENT_DAYS);
-                    throw new CSVErrorException(CSVErrorType.INVALID_PAYMENT_BEYOND_DATE, date, BEYOND_PAYMENT_DAYS);
-                }
-            }
-        } catch (DateTimeParseException dtpe) {
-            log.error(CSVErrorType.INVALID_DATE_FORMAT.getLogMessage(), date, DATE_FORMAT);
-            throw new CSVErrorException(CSVErrorType.INVALID_DATE_FORMAT, date, DATE_FORMAT);
+        int paymentDay = CSVDates.toEpochDay(date);
+        if (paymentDay == CSVDates.INVALID_DATE) {
+            error(CSVErrorType.INVALID_DATE_FORMAT, date, DATE_FORMAT);
+            return;
+        }
+        int today = today();
+        // the date cannot be in the past, compare with today
+        if (paymentDay < today) {
+            error(CSVErrorType.INVALID_PAYMENT_DATE, date);
+        } else if (paymentDay < today + PAYMENT_LATER_DAYS) {
+            // the payment date must be beyond 2 days later from processing day (now)
+            error(CSVErrorType.INVALID_PAYMENT_DATE_LATER_DAYS, date, PAYMENT_LATER_DAYS);
+        } else if (paymentDay > today + BEYOND_PAYMENT_DAYS) {
+            // the payment date cannot be beyond 31 days from processing day (now)
+            error(CSVErrorType.INVALID_PAYMENT_BEYOND_DATE, date, BEYOND_PAYMENT_DAYS);
         }
     }
 }
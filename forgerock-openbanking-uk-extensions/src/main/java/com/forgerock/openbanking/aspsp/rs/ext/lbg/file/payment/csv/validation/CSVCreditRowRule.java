@@ -0,0 +1,56 @@
+/**
+ * Copyright 2019 ForgeRock AS.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation;
+
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVCreditIndicatorRow;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVFilePayment;
+
+/**
+ * Rule validating the credit rows, run by {@link CSVCreditRowsValidator} with the other rules in a single pass over the rows:<br/>
+ * <li>{@link #check(CSVFilePayment, CSVValidationService, int, CSVCreditIndicatorRow)} is called for every row, in the file order, until it returns an error</li>
+ * <li>{@link #complete(CSVFilePayment, CSVValidationService)} is called after the last row, for the checks on the whole rows</li>
+ * The rules are stateless and shared by the validations, the file and the validation running, holding the state of the run, are arguments.
+ * The errors are returned, not logged nor thrown, only the error of the rule with the highest priority is raised.
+ */
+public interface CSVCreditRowRule {
+
+    /**
+     * Check a credit row, an error returned stops the rule
+     *
+     * @param file       payment file validated
+     * @param validation validation running
+     * @param index      index of the row in the credit rows
+     * @param row        credit row
+     * @return the error of the row, null when the row is valid
+     */
+    CSVValidationError check(CSVFilePayment file, CSVValidationService validation, int index, CSVCreditIndicatorRow row);
+
+    /**
+     * Check the credit rows as a whole, not called when {@link #check(CSVFilePayment, CSVValidationService, int, CSVCreditIndicatorRow)} returned an error
+     *
+     * @param file       payment file validated
+     * @param validation validation running
+     * @return the error of the rows, null when the rows are valid
+     */
+    default CSVValidationError complete(CSVFilePayment file, CSVValidationService validation) {
+        return null;
+    }
+}
@@ -0,0 +1,135 @@
+/**
+ * Copyright 2019 ForgeRock AS.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation;
+
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVCreditIndicatorRow;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVFilePayment;
+
+import java.util.List;
+
+/**
+ * Run the credit row rules in a single pass over the rows:<br/>
+ * <li>Every row is checked by every rule still running, a rule stops on its first error</li>
+ * <li>The rules are completed in the rules order, the first error found wins</li>
+ * The rules order is then the errors priority, the same as running the rules one after the other.
+ * The errors are only recorded, the caller raises the winning one. A rule failing on a row, such as a field it reads being null,
+ * is stopped the same way, its exception is only thrown when the rules with higher priority passed.
+ * Immutable and shared by the validations of a file type, see {@link CSVFileValidator}.
+ */
+public final class CSVCreditRowsValidator {
+    private final CSVCreditRowRule[] rules;
+
+    /**
+     * @param rules rules in priority order
+     */
+    public CSVCreditRowsValidator(final List<CSVCreditRowRule> rules) {
+        this.rules = rules.toArray(new CSVCreditRowRule[0]);
+    }
+
+    /**
+     * @param file       payment file validated
+     * @param validation validation running, holding the state of the rules
+     * @param rows       credit rows
+     * @return the first error of the rules order, null when the rows are valid
+     * @throws RuntimeException the first failure of the rules order, when before the first error
+     */
+    public CSVValidationError validate(final CSVFilePayment file, final CSVValidationService validation, final List<CSVCreditIndicatorRow> rows) {
+        Run run = start(file, validation);
+        for (CSVCreditIndicatorRow row : rows) {
+            if (run.running == 0) {
+                break;
+            }
+            run.check(row);
+        }
+        return run.complete();
+    }
+
+    /**
+     * Start a pass over the credit rows, the rows are then checked one by one, e.g. as they are parsed
+     *
+     * @param file       payment file validated
+     * @param validation validation running, holding the state of the rules
+     * @return the pass started
+     */
+    public Run start(final CSVFilePayment file, final CSVValidationService validation) {
+        return new Run(file, validation);
+    }
+
+    /**
+     * Pass of the rules over the credit rows, confined to the thread of the validation
+     */
+    public final class Run {
+        private final CSVFilePayment file;
+        private final CSVValidationService validation;
+        private final CSVValidationError[] errors = new CSVValidationError[rules.length];
+        private final RuntimeException[] failures = new RuntimeException[rules.length];
+        private int running = rules.length;
+        private int index;
+
+        private Run(final CSVFilePayment file, final CSVValidationService validation) {
+            this.file = file;
+            this.validation = validation;
+        }
+
+        /**
+         * @param row next credit row
+         */
+        public void check(final CSVCreditIndicatorRow row) {
+            for (int r = 0; r < rules.length && running > 0; r++) {
+                if (errors[r] == null && failures[r] == null) {
+                    try {
+                        errors[r] = rules[r].check(file, validation, index, row);
+                    } catch (RuntimeException e) {
+                        failures[r] = e;
+                    }
+                    if (errors[r] != null || failures[r] != null) {
+                        running--;
+                    }
+                }
+            }
+            index++;
+        }
+
+        /**
+         * @return number of credit rows checked
+         */
+        public int getRows() {
+            return index;
+        }
+
+        /**
+         * @return the first error of the rules order, null when the rows are valid
+         * @throws RuntimeException the first failure of the rules order, when before the first error
+         */
+        public CSVValidationError complete() {
+            for (int r = 0; r < rules.length; r++) {
+                if (failures[r] != null) {
+                    throw failures[r];
+                }
+                CSVValidationError error = errors[r] != null ? errors[r] : rules[r].complete(file, validation);
+                if (error != null) {
+                    return error;
+                }
+            }
+            return null;
+        }
+    }
+}
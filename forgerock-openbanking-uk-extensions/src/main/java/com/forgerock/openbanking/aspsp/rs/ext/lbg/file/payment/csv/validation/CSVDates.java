@@ -0,0 +1,114 @@
+/**
+ * Copyright 2019 ForgeRock AS.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Dates of the payment files, with the pattern {@link CSVValidation#DATE_FORMAT}:<br/>
+ * <li>{@link #DATE_FORMATTER} shared formatter, thread safe</li>
+ * <li>{@link #toEpochDay(String)} the date as epoch day, the 8 digits dates parsed without allocation</li>
+ */
+public final class CSVDates {
+    public static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern(CSVValidation.DATE_FORMAT);
+    /**
+     * Not a date matching {@link CSVValidation#DATE_FORMAT}
+     */
+    public static final int INVALID_DATE = Integer.MIN_VALUE;
+    private static final int DATE_LENGTH = 8;
+    private static final int DAYS_0000_TO_1970 = 719528;
+
+    private CSVDates() {
+    }
+
+    /**
+     * Parse the date, the same as {@link #DATE_FORMATTER} resolving the date:<br/>
+     * <li>The days beyond the month length, up to 31, are the last day of the month</li>
+     * <li>The year 0 is not valid</li>
+     *
+     * @param date date to parse
+     * @return the epoch day of the date, {@link #INVALID_DATE} when the date doesn't match the pattern
+     * @throws NullPointerException null date
+     */
+    public static int toEpochDay(final String date) {
+        if (date.length() != DATE_LENGTH) {
+            return parseEpochDay(date);
+        }
+        int value = 0;
+        for (int i = 0; i < DATE_LENGTH; i++) {
+            int digit = date.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return parseEpochDay(date);
+            }
+            value = value * 10 + digit;
+        }
+        int year = value / 10000;
+        int month = value / 100 % 100;
+        int day = value % 100;
+        if (year == 0 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return INVALID_DATE;
+        }
+        return toEpochDay(year, month, Math.min(day, lengthOfMonth(year, month)));
+    }
+
+    private static int parseEpochDay(final String date) {
+        try {
+            // the years beyond 9999 and before 1 are far enough to keep their order once clamped
+            long epochDay = LocalDate.from(DATE_FORMATTER.parse(date)).toEpochDay();
+            return (int) Math.max(INVALID_DATE + 1, Math.min(Integer.MAX_VALUE, epochDay));
+        } catch (DateTimeParseException dtpe) {
+            return INVALID_DATE;
+        }
+    }
+
+    private static int lengthOfMonth(final int year, final int month) {
+        switch (month) {
+            case 2:
+                return isLeap(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static boolean isLeap(final int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    // same as LocalDate#toEpochDay, for the years 1 to 9999
+    private static int toEpochDay(final int year, final int month, final int day) {
+        int total = 365 * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367 * month - 362) / 12 + day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeap(year)) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+}
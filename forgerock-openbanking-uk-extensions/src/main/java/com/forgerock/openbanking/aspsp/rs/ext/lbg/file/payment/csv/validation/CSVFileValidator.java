@@ -0,0 +1,105 @@
+/**
+ * Copyright 2019 ForgeRock AS.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation;
+
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.exception.CSVErrorException;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory.CSVFilePaymentType;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVFilePayment;
+import com.google.common.base.Preconditions;
+
+import java.time.Clock;
+import java.util.List;
+
+/**
+ * Validator of the payment files of a {@link CSVFilePaymentType}, immutable and shared by the threads:<br/>
+ * <li>The file is an argument of every validation, the validator holds no file</li>
+ * <li>The state of a validation, the processing day, the record and the errors, is confined to the call</li>
+ * <li>The credit row rules and their {@link CSVCreditRowsValidator} are built once by the validator, a validation run only holds the state of the call</li>
+ * <li>The rules state is compiled once for all the validators, see {@link CSVReferenceScreener} and {@link CSVDates}</li>
+ */
+public final class CSVFileValidator {
+    private final CSVFilePaymentType type;
+    private final Clock clock;
+    private final CSVCreditRowsValidator creditRowsValidator;
+    private final Validations validations;
+
+    /**
+     * Validation of a file for the processing day, running the credit row rules of the type with the shared validator
+     */
+    @FunctionalInterface
+    public interface Validations {
+        CSVValidationService create(CSVFilePayment file, Clock clock, CSVCreditRowsValidator creditRowsValidator);
+    }
+
+    /**
+     * @param type           file type validated
+     * @param clock          clock of the processing day
+     * @param creditRowRules rules validating the credit rows of the type, in their errors priority order
+     * @param validations    validation of a file of the type for the processing day
+     */
+    public CSVFileValidator(final CSVFilePaymentType type, final Clock clock, final List<CSVCreditRowRule> creditRowRules, final Validations validations) {
+        this.type = Preconditions.checkNotNull(type, "Cannot have a null file type");
+        this.clock = Preconditions.checkNotNull(clock, "clock");
+        this.creditRowsValidator = new CSVCreditRowsValidator(Preconditions.checkNotNull(creditRowRules, "creditRowRules"));
+        this.validations = Preconditions.checkNotNull(validations, "validations");
+    }
+
+    public CSVFilePaymentType getType() {
+        return type;
+    }
+
+    /**
+     * @param file payment file of the validator type
+     * @throws CSVErrorException the first error found
+     */
+    public void validate(final CSVFilePayment file) throws CSVErrorException {
+        validation(file).validate();
+    }
+
+    /**
+     * Run all the validations, collecting the errors instead of failing on the first one
+     *
+     * @param file      payment file of the validator type
+     * @param maxErrors maximum number of errors kept in the report
+     * @return the errors found
+     */
+    public CSVValidationReport validateAll(final CSVFilePayment file, final int maxErrors) {
+        return validation(file).validateAll(maxErrors);
+    }
+
+    /**
+     * Run all the validations collecting the errors, the credit rows being checked one by one as they are parsed,
+     * e.g. from a stream, so that neither the parser nor the file hold them, see {@link CSVValidationService#validateAllByRow(int)}
+     *
+     * @param file      payment file of the validator type holding the header and debit sections, its credit rows are not read
+     * @param maxErrors maximum number of errors kept in the report
+     * @return the validation of the credit rows to run
+     */
+    public CSVValidationService.RowsValidation validateAllByRow(final CSVFilePayment file, final int maxErrors) {
+        return validation(file).validateAllByRow(maxErrors);
+    }
+
+    private CSVValidationService validation(final CSVFilePayment file) {
+        Preconditions.checkNotNull(file, "Cannot have a null content file");
+        Preconditions.checkArgument(file.getFilePaymentType() == type, "The file type %s is not the validator type %s", file.getFilePaymentType(), type);
+        return validations.create(file, clock, creditRowsValidator);
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright 2019 ForgeRock AS.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation;
+
+import java.util.Locale;
+
+/**
+ * Find a word in the references, the same as {@link CSVValidation#REF_PATTERN} with
+ * {@link java.util.regex.Pattern#CASE_INSENSITIVE} but scanning the chars without regex and without allocation:<br/>
+ * <li>The word letters match case insensitive, ASCII only</li>
+ * <li>The word must not be preceded or followed by an ASCII letter or '-'</li>
+ */
+public final class CSVReferenceScreener {
+    private static final int ASCII_CASE_BIT = 0x20;
+    private final char[] word;
+
+    /**
+     * @param word word to find, ASCII letters only
+     */
+    public CSVReferenceScreener(final String word) {
+        if (word.isEmpty() || !word.chars().allMatch(CSVReferenceScreener::isLetter)) {
+            throw new IllegalArgumentException("The word to find must be ASCII letters: '" + word + "'");
+        }
+        this.word = word.toLowerCase(Locale.ROOT).toCharArray();
+    }
+
+    /**
+     * @param reference reference to scan
+     * @return true when the reference contains the word
+     * @throws NullPointerException null reference
+     */
+    public boolean find(final CharSequence reference) {
+        int last = reference.length() - word.length;
+        char first = word[0];
+        for (int i = 0; i <= last; i++) {
+            if ((reference.charAt(i) | ASCII_CASE_BIT) == first && matches(reference, i)
+                    && (i == 0 || !isBoundary(reference.charAt(i - 1)))
+                    && (i == last || !isBoundary(reference.charAt(i + word.length)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean matches(final CharSequence reference, final int from) {
+        for (int j = 1; j < word.length; j++) {
+            if ((reference.charAt(from + j) | ASCII_CASE_BIT) != word[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isBoundary(final int ch) {
+        return ch == '-' || isLetter(ch);
+    }
+
+    private static boolean isLetter(final int ch) {
+        int lower = ch | ASCII_CASE_BIT;
+        return lower >= 'a' && lower <= 'z';
+    }
+}
@@ -33,4 +33,21 @@ public interface CSVValidation {
     String PAYMENT_ASAP_VALUES[] = {"Y", "N", EMPTY_LIKE_NULL};
 
     void validate() throws CSVErrorException;
+
+    /**
+     * Run all the validations, collecting the errors instead of failing on the first one.<br/>
+     * By default {@link #validate()} is run, the report then holds its error only, about the whole file.
+     *
+     * @param maxErrors maximum number of errors kept in the report
+     * @return the errors found
+     */
+    default CSVValidationReport validateAll(int maxErrors) {
+        CSVValidationReport report = new CSVValidationReport(maxErrors);
+        try {
+            validate();
+        } catch (CSVErrorException e) {
+            report.add(CSVValidationError.FILE_RECORD, e.getCsvErrorType(), e.getArgs());
+        }
+        return report;
+    }
 }
@@ -0,0 +1,48 @@
+/**
+ * Copyright 2019 ForgeRock AS.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation;
+
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.exception.CSVErrorType;
+import lombok.Value;
+import uk.org.openbanking.datamodel.error.OBError1;
+
+/**
+ * An error of a {@link CSVValidationReport}, the message is only formatted on demand
+ */
+@Value
+public class CSVValidationError {
+    public static final long FILE_RECORD = 0;
+
+    /**
+     * Record of the error, starting at 1 with the header, {@link #FILE_RECORD} when it is about the whole file
+     */
+    long recordNumber;
+    CSVErrorType errorType;
+    Object[] args;
+
+    public String getMessage() {
+        return errorType.format(args);
+    }
+
+    public OBError1 toOBError1() {
+        return errorType.toOBError1(args);
+    }
+}
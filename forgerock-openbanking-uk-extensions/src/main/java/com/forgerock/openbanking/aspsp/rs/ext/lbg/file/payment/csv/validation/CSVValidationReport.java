@@ -0,0 +1,77 @@
+/**
+ * Copyright 2019 ForgeRock AS.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation;
+
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.exception.CSVErrorType;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Errors collected by {@link CSVValidation#validateAll(int)}, in the order they were found.<br/>
+ * Only the first <code>maxErrors</code> errors are kept, the others are counted.
+ */
+public class CSVValidationReport {
+    private final int maxErrors;
+    private final List<CSVValidationError> errors = new ArrayList<>();
+    /**
+     * Number of errors found, kept or not
+     */
+    @Getter
+    private long errorCount;
+
+    /**
+     * @param maxErrors maximum number of errors kept
+     */
+    public CSVValidationReport(final int maxErrors) {
+        if (maxErrors < 0) {
+            throw new IllegalArgumentException("maxErrors must not be negative: " + maxErrors);
+        }
+        this.maxErrors = maxErrors;
+    }
+
+    void add(final long recordNumber, final CSVErrorType errorType, final Object... args) {
+        errorCount++;
+        if (errors.size() < maxErrors) {
+            errors.add(new CSVValidationError(recordNumber, errorType, args));
+        }
+    }
+
+    /**
+     * @return the errors kept
+     */
+    public List<CSVValidationError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    public boolean isValid() {
+        return errorCount == 0;
+    }
+
+    /**
+     * @return true when errors have been found beyond <code>maxErrors</code>
+     */
+    public boolean isTruncated() {
+        return errorCount > errors.size();
+    }
+}
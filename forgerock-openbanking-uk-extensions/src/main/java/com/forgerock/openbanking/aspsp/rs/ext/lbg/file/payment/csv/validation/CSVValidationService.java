@@ -22,6 +22,7 @@ package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation;
 
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.exception.CSVErrorException;
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.exception.CSVErrorType;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVAmounts;
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVCreditIndicatorRow;
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVDebitIndicatorSection;
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVFilePayment;
@@ -29,25 +30,161 @@ import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVHead
 import com.forgerock.openbanking.common.model.openbanking.persistence.payment.FRFileConsent;
 import com.forgerock.openbanking.exceptions.OBErrorException;
 import com.forgerock.openbanking.model.error.OBRIErrorType;
+import com.google.common.base.Preconditions;
 import lombok.extern.slf4j.Slf4j;
 
 import java.math.BigDecimal;
+import java.time.Clock;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
-import java.time.temporal.TemporalAccessor;
 import java.util.Arrays;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Collections;
+import java.util.List;
 
 @Slf4j
 public class CSVValidationService implements CSVValidation {
 
+    private static final CSVReferenceScreener REFERENCE_SCREENER = new CSVReferenceScreener(REF_WORD_TO_FIND);
     private final CSVFilePayment file;
+    private final Clock clock;
+    private static final long HEADER_RECORD = 1;
+    private static final long DEBIT_RECORD = 2;
+    private static final long FIRST_CREDIT_RECORD = 3;
+    private static final String NO_CREDIT_ROWS = "There are no 'Credit Indicator Rows'.";
+
+    /**
+     * Credit Rows indicator rule, see {@link #validateCreditRowsIndicator()}
+     */
+    protected static final CSVCreditRowRule CREDIT_INDICATOR_RULE = new CSVCreditRowRule() {
+        @Override
+        public CSVValidationError check(CSVFilePayment file, CSVValidationService validation, int index, CSVCreditIndicatorRow row) {
+            validation.creditRecord(index);
+            if (validation.checkNotNull(row.getCreditIndicator(), "Credit Indicator row value")
+                    && !row.getCreditIndicator().equals(CSVCreditIndicatorRow.CREDIT_IND_EXPECTED)) {
+                // collected by row, otherwise counted for a single error
+                if (validation.isCollectingErrors()) {
+                    validation.error(CSVErrorType.INVALID_CREDIT_INDICATOR, CSVCreditIndicatorRow.CREDIT_IND_EXPECTED, 1);
+                } else {
+                    validation.invalidCreditIndicators++;
+                }
+            }
+            return validation.takeRecordedError();
+        }
+
+        @Override
+        public CSVValidationError complete(CSVFilePayment file, CSVValidationService validation) {
+            if (validation.invalidCreditIndicators > 0) {
+                validation.recordNumber = CSVValidationError.FILE_RECORD;
+                validation.error(CSVErrorType.INVALID_CREDIT_INDICATOR, CSVCreditIndicatorRow.CREDIT_IND_EXPECTED, validation.invalidCreditIndicators);
+            }
+            return validation.takeRecordedError();
+        }
+    };
+
+    /**
+     * Credit Rows reference rule, see {@link #validateCreditRowsReference()}
+     */
+    protected static final CSVCreditRowRule REFERENCE_RULE = new CSVCreditRowRule() {
+        @Override
+        public CSVValidationError check(CSVFilePayment file, CSVValidationService validation, int index, CSVCreditIndicatorRow row) {
+            if (REFERENCE_SCREENER.find(row.getReference())) {
+                // collected by row, otherwise counted for a single error
+                if (validation.isCollectingErrors()) {
+                    validation.creditRecord(index);
+                    validation.error(CSVErrorType.INVALID_REFERENCE_FORMAT, 1, REF_WORD_TO_FIND);
+                } else {
+                    validation.contraReferences++;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public CSVValidationError complete(CSVFilePayment file, CSVValidationService validation) {
+            if (validation.contraReferences > 0) {
+                validation.recordNumber = CSVValidationError.FILE_RECORD;
+                validation.error(CSVErrorType.INVALID_REFERENCE_FORMAT, validation.contraReferences, REF_WORD_TO_FIND);
+            }
+            return validation.takeRecordedError();
+        }
+    };
+
+    /**
+     * Credit Rows sum debit amount rule, the amounts are summed while checking the rows, see {@link #validateCreditSum()}
+     */
+    protected static final CSVCreditRowRule CREDIT_SUM_RULE = new CSVCreditRowRule() {
+        @Override
+        public CSVValidationError check(CSVFilePayment file, CSVValidationService validation, int index, CSVCreditIndicatorRow row) {
+            validation.creditRowsSum.add(row.getDebitAmount(), row.getDebitAmountMinorUnits());
+            return null;
+        }
+
+        @Override
+        public CSVValidationError complete(CSVFilePayment file, CSVValidationService validation) {
+            validation.recordNumber = CSVValidationError.FILE_RECORD;
+            validation.validateCreditSum(validation.creditRowsSum.toBigDecimal());
+            return validation.takeRecordedError();
+        }
+    };
+
+    /**
+     * Credit Rows payment rule, see {@link #validatePaymentASAP(CSVCreditIndicatorRow)}
+     */
+    protected static final CSVCreditRowRule PAYMENT_RULE = (file, validation, index, row) -> {
+        validation.creditRecord(index);
+        validation.validatePaymentASAP(row);
+        return validation.takeRecordedError();
+    };
+
+    /**
+     * Rules validating the credit rows in a single pass, in their errors priority order:<br/>
+     * <li>{@link #CREDIT_INDICATOR_RULE}</li>
+     * <li>{@link #REFERENCE_RULE}</li>
+     * <li>{@link #CREDIT_SUM_RULE}</li>
+     * <li>{@link #PAYMENT_RULE}</li>
+     */
+    public static final List<CSVCreditRowRule> CREDIT_ROW_RULES = Collections.unmodifiableList(
+            Arrays.asList(CREDIT_INDICATOR_RULE, REFERENCE_RULE, CREDIT_SUM_RULE, PAYMENT_RULE));
+
+    private static final CSVCreditRowsValidator CREDIT_INDICATOR_VALIDATOR = new CSVCreditRowsValidator(Collections.singletonList(CREDIT_INDICATOR_RULE));
+    private static final CSVCreditRowsValidator REFERENCE_VALIDATOR = new CSVCreditRowsValidator(Collections.singletonList(REFERENCE_RULE));
+    private static final CSVCreditRowsValidator PAYMENT_VALIDATOR = new CSVCreditRowsValidator(Collections.singletonList(PAYMENT_RULE));
+    // processing day of the validation running
+    private int validationDay = CSVDates.INVALID_DATE;
+    // errors collected by validateAll, null when failing on the first error
+    private CSVValidationReport report;
+    // record being validated
+    private long recordNumber = CSVValidationError.FILE_RECORD;
+    // credit row rules running, their errors are recorded instead of raised, see CSVCreditRowRule
+    private boolean recordingErrors;
+    private CSVValidationError recordedError;
+    // state of the credit row rules running
+    private int invalidCreditIndicators;
+    private int contraReferences;
+    private CSVAmounts.Sum creditRowsSum;
+    // validator of creditRowRules(), shared by the validations of the type or built with the first validation
+    private CSVCreditRowsValidator creditRowsValidator;
 
     public CSVValidationService(final CSVFilePayment file) {
+        this(file, Clock.systemDefaultZone());
+    }
+
+    /**
+     * @param file  payment file to validate
+     * @param clock clock of the processing day
+     */
+    public CSVValidationService(final CSVFilePayment file, final Clock clock) {
+        this(file, clock, null);
+    }
+
+    /**
+     * @param file                payment file to validate
+     * @param clock               clock of the processing day
+     * @param creditRowsValidator validator of the {@link #creditRowRules()} shared by the validations, null to build it
+     */
+    public CSVValidationService(final CSVFilePayment file, final Clock clock, final CSVCreditRowsValidator creditRowsValidator) {
         this.file = file;
+        this.clock = clock;
+        this.creditRowsValidator = creditRowsValidator;
     }
 
     /**
@@ -56,9 +193,210 @@ public class CSVValidationService implements CSVValidation {
      */
     @Override
     public void validate() throws CSVErrorException {
-        validateHeaderIndicator();
-        validateDebitIndicator();
-        validateCreditRows();
+        run(null);
+    }
+
+    /**
+     * Run all the validations in a single pass, the errors are collected in the report instead of being thrown:<br/>
+     * <li>a section or a field null stops the validations depending on it</li>
+     * <li>the credit rows errors are reported by row</li>
+     *
+     * @param maxErrors maximum number of errors kept in the report
+     * @return the errors found
+     */
+    @Override
+    public CSVValidationReport validateAll(int maxErrors) {
+        CSVValidationReport collected = new CSVValidationReport(maxErrors);
+        run(collected);
+        return collected;
+    }
+
+    /**
+     * Run all the validations collecting the errors as {@link #validateAll(int)}, the credit rows being checked one by one
+     * as they are parsed instead of read from the file, so that they are never held:<br/>
+     * <li>The header and debit sections are validated here, the file must hold them</li>
+     * <li>The credit rows are validated by {@link RowsValidation#check(CSVCreditIndicatorRow)}, the rows of the file are not read</li>
+     * <li>The number of credit rows is validated by {@link RowsValidation#complete()}, after the errors of the rows</li>
+     * The validation is confined to the thread of the parsing.
+     *
+     * @param maxErrors maximum number of errors kept in the report
+     * @return the validation of the credit rows to run
+     */
+    public RowsValidation validateAllByRow(int maxErrors) {
+        return new RowsValidation(new CSVValidationReport(maxErrors));
+    }
+
+    /**
+     * Validation of the credit rows one by one, see {@link #validateAllByRow(int)}
+     */
+    public final class RowsValidation {
+        private final CSVValidationReport collected;
+        private final CSVCreditRowsValidator.Run rules;
+        private boolean completed;
+
+        private RowsValidation(final CSVValidationReport collected) {
+            this.collected = collected;
+            begin(collected);
+            validateHeaderIndicator();
+            validateDebitIndicator();
+            recordNumber = CSVValidationError.FILE_RECORD;
+            rules = startCreditRowRules(creditRowsValidator());
+        }
+
+        /**
+         * @param row next credit row parsed
+         */
+        public void check(final CSVCreditIndicatorRow row) {
+            Preconditions.checkState(!completed, "The credit rows validation has been completed already");
+            rules.check(row);
+        }
+
+        /**
+         * @return the errors found
+         */
+        public CSVValidationReport complete() {
+            Preconditions.checkState(!completed, "The credit rows validation has been completed already");
+            completed = true;
+            try {
+                recordNumber = CSVValidationError.FILE_RECORD;
+                if (rules.getRows() == 0) {
+                    error(CSVErrorType.INVALID_FORMAT, NO_CREDIT_ROWS);
+                    return collected;
+                }
+                if (file.getHeaderIndicatorSection() != null) {
+                    validateCreditRowsAllowed(rules.getRows());
+                    validateNumberOfCredits(rules.getRows());
+                }
+                completeCreditRowRules(rules);
+            } finally {
+                end();
+            }
+            return collected;
+        }
+    }
+
+    private void run(CSVValidationReport collected) {
+        begin(collected);
+        try {
+            validateHeaderIndicator();
+            validateDebitIndicator();
+            validateCreditRows();
+        } finally {
+            end();
+        }
+    }
+
+    private void begin(CSVValidationReport collected) {
+        validationDay = today();
+        report = collected;
+    }
+
+    private void end() {
+        validationDay = CSVDates.INVALID_DATE;
+        report = null;
+        recordNumber = CSVValidationError.FILE_RECORD;
+    }
+
+    /**
+     * Raise an error of the record being validated, collected in the report when running {@link #validateAll(int)},
+     * recorded when running the credit row rules, the caller must not go on with the validation depending on it.
+     *
+     * @param errorType error type
+     * @param args      error message arguments
+     * @throws CSVErrorException when running {@link #validate()}
+     */
+    protected void error(CSVErrorType errorType, Object... args) throws CSVErrorException {
+        if (report != null) {
+            report.add(recordNumber, errorType, args);
+            return;
+        }
+        if (recordingErrors) {
+            // the first error of the check, the next ones depend on it
+            if (recordedError == null) {
+                recordedError = new CSVValidationError(recordNumber, errorType, args);
+            }
+            return;
+        }
+        raise(errorType, args);
+    }
+
+    /**
+     * Log and throw an error, once by {@link #validate()}
+     *
+     * @param errorType error type
+     * @param args      error message arguments
+     * @throws CSVErrorException always
+     */
+    protected void raise(CSVErrorType errorType, Object... args) throws CSVErrorException {
+        log.error(errorType.getLogMessage(), args);
+        throw new CSVErrorException(errorType, args);
+    }
+
+    /**
+     * Error recorded by a credit row rule check, see {@link CSVCreditRowRule}
+     *
+     * @return the error recorded since the last call, null when none
+     */
+    protected CSVValidationError takeRecordedError() {
+        CSVValidationError error = recordedError;
+        recordedError = null;
+        return error;
+    }
+
+    /**
+     * Run the credit row rules in a single pass, raising the error of the rule with the highest priority
+     *
+     * @param validator validator of the rules
+     */
+    private void runCreditRowRules(CSVCreditRowsValidator validator) {
+        CSVCreditRowsValidator.Run rules = startCreditRowRules(validator);
+        for (CSVCreditIndicatorRow row : file.getCreditIndicatorRows()) {
+            rules.check(row);
+        }
+        completeCreditRowRules(rules);
+    }
+
+    private CSVCreditRowsValidator.Run startCreditRowRules(CSVCreditRowsValidator validator) {
+        recordingErrors = !isCollectingErrors();
+        invalidCreditIndicators = 0;
+        contraReferences = 0;
+        creditRowsSum = new CSVAmounts.Sum();
+        return validator.start(file, this);
+    }
+
+    private void completeCreditRowRules(CSVCreditRowsValidator.Run rules) {
+        CSVValidationError error;
+        try {
+            error = rules.complete();
+        } finally {
+            recordingErrors = false;
+            recordedError = null;
+            creditRowsSum = null;
+        }
+        if (error != null) {
+            recordNumber = error.getRecordNumber();
+            raise(error.getErrorType(), error.getArgs());
+        }
+    }
+
+    /**
+     * @return true when the errors are collected, see {@link #validateAll(int)}
+     */
+    protected boolean isCollectingErrors() {
+        return report != null;
+    }
+
+    private void creditRecord(int index) {
+        recordNumber = FIRST_CREDIT_RECORD + index;
+    }
+
+    /**
+     * Processing day, the same for the whole {@link #validate()} run
+     *
+     * @return the epoch day of today from the clock
+     */
+    protected int today() {
+        return validationDay != CSVDates.INVALID_DATE ? validationDay : (int) LocalDate.now(clock).toEpochDay();
     }
 
     /**
@@ -67,11 +405,13 @@ public class CSVValidationService implements CSVValidation {
      * <li>The date must match with the pattern 'yyyyMMdd'</li>
      */
     public void validateHeaderIndicator() {
-        checkNotNull(file.getHeaderIndicatorSection(), "Header Indicator section");
-        checkNotNull(file.getHeaderIndicatorSection().getHeaderIndicator(), "Header Indicator value");
-        if (!file.getHeaderIndicatorSection().getHeaderIndicator().equals(CSVHeaderIndicatorSection.HEADER_IND_EXPECTED)) {
-            log.error(CSVErrorType.INVALID_HEADER_INDICATOR.getLogMessage(), CSVHeaderIndicatorSection.HEADER_IND_EXPECTED, file.getHeaderIndicatorSection().getHeaderIndicator());
-            throw new CSVErrorException(CSVErrorType.INVALID_HEADER_INDICATOR, CSVHeaderIndicatorSection.HEADER_IND_EXPECTED, file.getHeaderIndicatorSection().getHeaderIndicator());
+        recordNumber = HEADER_RECORD;
+        if (!checkNotNull(file.getHeaderIndicatorSection(), "Header Indicator section")) {
+            return;
+        }
+        if (checkNotNull(file.getHeaderIndicatorSection().getHeaderIndicator(), "Header Indicator value")
+                && !file.getHeaderIndicatorSection().getHeaderIndicator().equals(CSVHeaderIndicatorSection.HEADER_IND_EXPECTED)) {
+            error(CSVErrorType.INVALID_HEADER_INDICATOR, CSVHeaderIndicatorSection.HEADER_IND_EXPECTED, file.getHeaderIndicatorSection().getHeaderIndicator());
         }
         validateDateFormat(file.getHeaderIndicatorSection().getFileCreationDate());
     }
@@ -81,11 +421,11 @@ public class CSVValidationService implements CSVValidation {
      * <li>Debit indicator must be 'D', not null, not empty or blank</li>
      */
     protected void validateDebitIndicator() {
-        checkNotNull(file.getDebitIndicatorSection(), "Debit Indicator section");
-        checkNotNull(file.getDebitIndicatorSection().getDebitIndicator(), "Debit Indicator value");
-        if (!file.getDebitIndicatorSection().getDebitIndicator().equals(CSVDebitIndicatorSection.DEBIT_IND_EXPECTED)) {
-            log.error(CSVErrorType.INVALID_DEBIT_INDICATOR.getLogMessage(), CSVDebitIndicatorSection.DEBIT_IND_EXPECTED, file.getDebitIndicatorSection().getDebitIndicator());
-            throw new CSVErrorException(CSVErrorType.INVALID_DEBIT_INDICATOR, CSVDebitIndicatorSection.DEBIT_IND_EXPECTED, file.getDebitIndicatorSection().getDebitIndicator());
+        recordNumber = DEBIT_RECORD;
+        if (checkNotNull(file.getDebitIndicatorSection(), "Debit Indicator section")
+                && checkNotNull(file.getDebitIndicatorSection().getDebitIndicator(), "Debit Indicator value")
+                && !file.getDebitIndicatorSection().getDebitIndicator().equals(CSVDebitIndicatorSection.DEBIT_IND_EXPECTED)) {
+            error(CSVErrorType.INVALID_DEBIT_INDICATOR, CSVDebitIndicatorSection.DEBIT_IND_EXPECTED, file.getDebitIndicatorSection().getDebitIndicator());
         }
     }
 
@@ -105,18 +445,33 @@ public class CSVValidationService implements CSVValidation {
      * <li>The payment date must match the pattern 'yyyyMMdd'</li>
      */
     protected void validateCreditRows() {
-        checkNotNull(file.getCreditIndicatorRows(), "Credit Indicator Rows");
-        if (file.getCreditIndicatorRows().isEmpty()) {
-            log.error("{} There are no 'Credit Indicator Rows'.", CSVErrorType.INVALID_FORMAT.getLogMessage());
-            throw new CSVErrorException(CSVErrorType.INVALID_FORMAT);
-        } else {
+        recordNumber = CSVValidationError.FILE_RECORD;
+        if (!checkNotNull(file.getCreditIndicatorRows(), "Credit Indicator Rows") || isCreditRowsEmpty()) {
+            return;
+        }
+        // without header only collecting errors reaches this point
+        if (file.getHeaderIndicatorSection() != null) {
             validateCreditRowsAllowed();
             validateNumberOfCredits();
-            validateCreditRowsIndicator();
-            validateCreditRowsReference();
-            validateCreditSum();
-            validatePaymentCreditRow();
         }
+        runCreditRowRules(creditRowsValidator());
+        recordNumber = CSVValidationError.FILE_RECORD;
+    }
+
+    private CSVCreditRowsValidator creditRowsValidator() {
+        if (creditRowsValidator == null) {
+            creditRowsValidator = new CSVCreditRowsValidator(creditRowRules());
+        }
+        return creditRowsValidator;
+    }
+
+    /**
+     * Rules validating the credit rows in a single pass, see {@link #CREDIT_ROW_RULES}
+     *
+     * @return the rules run by {@link #validateCreditRows()}
+     */
+    protected List<CSVCreditRowRule> creditRowRules() {
+        return CREDIT_ROW_RULES;
     }
 
     /**
@@ -124,9 +479,12 @@ public class CSVValidationService implements CSVValidation {
      * <li>Not allowed more than 25 credit rows</li>
      */
     protected void validateCreditRowsAllowed() {
-        if (file.getCreditIndicatorRows().size() > CREDIT_ROWS_ALLOWED | file.getHeaderIndicatorSection().getNumCredits() > CREDIT_ROWS_ALLOWED) {
-            log.error(CSVErrorType.NUMBER_CREDITS_ROWS_NOT_ALLOWED.getLogMessage(), CREDIT_ROWS_ALLOWED, file.getCreditIndicatorRows().size());
-            throw new CSVErrorException(CSVErrorType.NUMBER_CREDITS_ROWS_NOT_ALLOWED, CREDIT_ROWS_ALLOWED, file.getCreditIndicatorRows().size());
+        validateCreditRowsAllowed(file.getCreditIndicatorRows().size());
+    }
+
+    private void validateCreditRowsAllowed(int creditRows) {
+        if (creditRows > CREDIT_ROWS_ALLOWED | file.getHeaderIndicatorSection().getNumCredits() > CREDIT_ROWS_ALLOWED) {
+            error(CSVErrorType.NUMBER_CREDITS_ROWS_NOT_ALLOWED, CREDIT_ROWS_ALLOWED, creditRows);
         }
     }
 
@@ -135,9 +493,12 @@ public class CSVValidationService implements CSVValidation {
      * <li>The number of credits value from header section match with the number of credit rows</li>
      */
     protected void validateNumberOfCredits() {
-        if (!(file.getHeaderIndicatorSection().getNumCredits() == file.getCreditIndicatorRows().size())) {
-            log.error(CSVErrorType.NUMBER_CREDITS_NOT_MATCH.getLogMessage());
-            throw new CSVErrorException(CSVErrorType.NUMBER_CREDITS_NOT_MATCH);
+        validateNumberOfCredits(file.getCreditIndicatorRows().size());
+    }
+
+    private void validateNumberOfCredits(int creditRows) {
+        if (!(file.getHeaderIndicatorSection().getNumCredits() == creditRows)) {
+            error(CSVErrorType.NUMBER_CREDITS_NOT_MATCH);
         }
     }
 
@@ -146,22 +507,8 @@ public class CSVValidationService implements CSVValidation {
      * <li>The credit row indicator must be 'C', not null, not empty or blank</li>
      */
     protected void validateCreditRowsIndicator() {
-        AtomicInteger founds = new AtomicInteger();
-        if (file.getCreditIndicatorRows().isEmpty()) {
-            log.error("{} There are no 'Credit Indicator Rows'.", CSVErrorType.INVALID_FORMAT.getLogMessage());
-            throw new CSVErrorException(CSVErrorType.INVALID_FORMAT);
-        } else {
-            file.getCreditIndicatorRows().forEach(c -> {
-                checkNotNull(c.getCreditIndicator(), "Credit Indicator row value");
-                if (!c.getCreditIndicator().equals(CSVCreditIndicatorRow.CREDIT_IND_EXPECTED)) {
-                    founds.getAndIncrement();
-                }
-            });
-        }
-        if (founds.get() > 0) {
-            log.error(CSVErrorType.INVALID_CREDIT_INDICATOR.getLogMessage(), CSVCreditIndicatorRow.CREDIT_IND_EXPECTED, founds.get());
-            throw new CSVErrorException(CSVErrorType.INVALID_CREDIT_INDICATOR, CSVCreditIndicatorRow.CREDIT_IND_EXPECTED, founds.get());
-        }
+        isCreditRowsEmpty();
+        runCreditRowRules(CREDIT_INDICATOR_VALIDATOR);
     }
 
     /**
@@ -169,23 +516,8 @@ public class CSVValidationService implements CSVValidation {
      * <li>The reference not contains the word 'CONTRA', case insensitive, accepted it is part of another string</li>
      */
     protected void validateCreditRowsReference() {
-        AtomicInteger founds = new AtomicInteger();
-        if (file.getCreditIndicatorRows().isEmpty()) {
-            log.error("{} There are no 'Credit Indicator Rows'.", CSVErrorType.INVALID_FORMAT.getLogMessage());
-            throw new CSVErrorException(CSVErrorType.INVALID_FORMAT);
-        } else {
-            file.getCreditIndicatorRows().forEach(c -> {
-                Matcher matcher = Pattern.compile(REF_PATTERN, Pattern.CASE_INSENSITIVE).matcher(c.getReference());
-                if (matcher.find()) {
-                    founds.getAndIncrement();
-
-                }
-            });
-        }
-        if (founds.get() > 0) {
-            log.error(CSVErrorType.INVALID_REFERENCE_FORMAT.getLogMessage(), founds.get(), REF_WORD_TO_FIND);
-            throw new CSVErrorException(CSVErrorType.INVALID_REFERENCE_FORMAT, founds.get(), REF_WORD_TO_FIND);
-        }
+        isCreditRowsEmpty();
+        runCreditRowRules(REFERENCE_VALIDATOR);
     }
 
     /**
@@ -193,9 +525,7 @@ public class CSVValidationService implements CSVValidation {
      */
     protected void validatePaymentCreditRow() {
         isCreditRowsEmpty();
-        file.getCreditIndicatorRows().forEach(c -> {
-            validatePaymentASAP(c);
-        });
+        runCreditRowRules(PAYMENT_VALIDATOR);
     }
 
     /**
@@ -203,24 +533,31 @@ public class CSVValidationService implements CSVValidation {
      * <li>The credit value from header must match with the sum of debit amount rows</li>
      */
     protected void validateCreditSum() {
-        if (file.getHeaderIndicatorSection().getValueCreditsSum().compareTo(file.getCreditRowsTotalDebitAmount())!=0) {
-            log.error(CSVErrorType.INVALID_CREDIT_AMOUNT.getLogMessage(), file.getHeaderIndicatorSection().getValueCreditsSum().toPlainString(), file.getCreditRowsTotalDebitAmount().toPlainString());
-            throw new CSVErrorException(CSVErrorType.INVALID_CREDIT_AMOUNT, file.getHeaderIndicatorSection().getValueCreditsSum().toPlainString(), file.getCreditRowsTotalDebitAmount().toPlainString());
+        validateCreditSum(file.getCreditRowsTotalDebitAmount());
+    }
+
+    private void validateCreditSum(BigDecimal creditRowsTotalDebitAmount) {
+        // without header only collecting errors reaches this point
+        if (file.getHeaderIndicatorSection() == null) {
+            return;
+        }
+        if (file.getHeaderIndicatorSection().getValueCreditsSum().compareTo(creditRowsTotalDebitAmount)!=0) {
+            error(CSVErrorType.INVALID_CREDIT_AMOUNT, file.getHeaderIndicatorSection().getValueCreditsSum().toPlainString(), creditRowsTotalDebitAmount.toPlainString());
         }
     }
 
     /**
      * DAte format validation:<br/>
      * <li>The date must match with the pattern 'yyyyMMdd'</li>
+     *
+     * @return true when the date is valid
      */
-    protected void validateDateFormat(String date) {
-        DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern(DATE_FORMAT);
-        try {
-            dateTimeFormatter.parse(date);
-        } catch (DateTimeParseException dtpe) {
-            log.error(CSVErrorType.INVALID_DATE_FORMAT.getLogMessage(), date, DATE_FORMAT);
-            throw new CSVErrorException(CSVErrorType.INVALID_DATE_FORMAT, date, DATE_FORMAT);
+    protected boolean validateDateFormat(String date) {
+        if (CSVDates.toEpochDay(date) == CSVDates.INVALID_DATE) {
+            error(CSVErrorType.INVALID_DATE_FORMAT, date, DATE_FORMAT);
+            return false;
         }
+        return true;
     }
 
     /**
@@ -229,25 +566,18 @@ public class CSVValidationService implements CSVValidation {
      * <li>The date cannot be beyond 31 days from processing day</li>
      */
     protected void validatePaymentDate(String date) {
-        DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern(DATE_FORMAT);
-        try {
-            TemporalAccessor ta = dateTimeFormatter.parse(date);
-            LocalDate ldtToday = LocalDate.now();
-            LocalDate ldtRow = LocalDate.from(ta);
-            // the date cannot be in the past, compare with today
-            if (ldtRow.compareTo(ldtToday) < 0) {
-                log.error(CSVErrorType.INVALID_PAYMENT_DATE.getLogMessage(), date);
-                throw new CSVErrorException(CSVErrorType.INVALID_PAYMENT_DATE, date);
-            } else {
-                // the payment date cannot be beyond 31 days from processing day (now)
-                if (ldtToday.plusDays(BEYOND_PAYMENT_DAYS).compareTo(ldtRow) < 0) {
-                    log.error(CSVErrorType.INVALID_PAYMENT_BEYOND_DATE.getLogMessage(), date, BEYOND_PAYMENT_DAYS);
-                    throw new CSVErrorException(CSVErrorType.INVALID_PAYMENT_BEYOND_DATE, date, BEYOND_PAYMENT_DAYS);
-                }
-            }
-        } catch (DateTimeParseException dtpe) {
-            log.error(CSVErrorType.INVALID_DATE_FORMAT.getLogMessage(), date, DATE_FORMAT);
-            throw new CSVErrorException(CSVErrorType.INVALID_DATE_FORMAT, date, DATE_FORMAT);
+        int paymentDay = CSVDates.toEpochDay(date);
+        if (paymentDay == CSVDates.INVALID_DATE) {
+            error(CSVErrorType.INVALID_DATE_FORMAT, date, DATE_FORMAT);
+            return;
+        }
+        int today = today();
+        // the date cannot be in the past, compare with today
+        if (paymentDay < today) {
+            error(CSVErrorType.INVALID_PAYMENT_DATE, date);
+        } else if (paymentDay > today + BEYOND_PAYMENT_DAYS) {
+            // the payment date cannot be beyond 31 days from processing day (now)
+            error(CSVErrorType.INVALID_PAYMENT_BEYOND_DATE, date, BEYOND_PAYMENT_DAYS);
         }
     }
 
@@ -260,43 +590,39 @@ public class CSVValidationService implements CSVValidation {
      */
     protected void validatePaymentASAP(CSVCreditIndicatorRow csvCreditIndicatorRow) {
         if (csvCreditIndicatorRow.getPaymentASAP() == null && csvCreditIndicatorRow.getPaymentDate() == null) {
-            log.error(CSVErrorType.INVALID_CREDIT_PAYMENT.getLogMessage(), PAYMENT_ASAP_VALUES[1]);
-            throw new CSVErrorException(CSVErrorType.INVALID_CREDIT_PAYMENT, PAYMENT_ASAP_VALUES[1]);
+            error(CSVErrorType.INVALID_CREDIT_PAYMENT, PAYMENT_ASAP_VALUES[1]);
         } else if (PAYMENT_ASAP_VALUES[2].equals(csvCreditIndicatorRow.getPaymentASAP().toUpperCase())) {
             if (EMPTY_LIKE_NULL.equals(csvCreditIndicatorRow.getPaymentDate()) | csvCreditIndicatorRow.getPaymentDate() == null) {
-                log.error(CSVErrorType.INVALID_CREDIT_PAYMENT.getLogMessage(), PAYMENT_ASAP_VALUES[1]);
-                throw new CSVErrorException(CSVErrorType.INVALID_CREDIT_PAYMENT, PAYMENT_ASAP_VALUES[1]);
-            } else {
-                validateDateFormat(csvCreditIndicatorRow.getPaymentDate());
+                error(CSVErrorType.INVALID_CREDIT_PAYMENT, PAYMENT_ASAP_VALUES[1]);
+            } else if (validateDateFormat(csvCreditIndicatorRow.getPaymentDate())) {
                 validatePaymentDate(csvCreditIndicatorRow.getPaymentDate());
             }
         } else if (PAYMENT_ASAP_VALUES[0].equals(csvCreditIndicatorRow.getPaymentASAP().toUpperCase())) {
             if (!(EMPTY_LIKE_NULL.equals(csvCreditIndicatorRow.getPaymentDate()) | csvCreditIndicatorRow.getPaymentDate() == null)) {
-                log.error(CSVErrorType.INVALID_PAYMENT_ASAP_EMPTY.getLogMessage(), PAYMENT_ASAP_VALUES[0]);
-                throw new CSVErrorException(CSVErrorType.INVALID_PAYMENT_ASAP_EMPTY, PAYMENT_ASAP_VALUES[0]);
+                error(CSVErrorType.INVALID_PAYMENT_ASAP_EMPTY, PAYMENT_ASAP_VALUES[0]);
             }
         } else if (PAYMENT_ASAP_VALUES[1].equals(csvCreditIndicatorRow.getPaymentASAP().toUpperCase())) {
             if (EMPTY_LIKE_NULL.equals(csvCreditIndicatorRow.getPaymentDate()) | csvCreditIndicatorRow.getPaymentDate() == null) {
-                log.error(CSVErrorType.INVALID_PAYMENT_ASAP_ENTRY.getLogMessage(), PAYMENT_ASAP_VALUES[1]);
-                throw new CSVErrorException(CSVErrorType.INVALID_PAYMENT_ASAP_ENTRY, PAYMENT_ASAP_VALUES[1]);
-            } else {
-                validateDateFormat(csvCreditIndicatorRow.getPaymentDate());
+                error(CSVErrorType.INVALID_PAYMENT_ASAP_ENTRY, PAYMENT_ASAP_VALUES[1]);
+            } else if (validateDateFormat(csvCreditIndicatorRow.getPaymentDate())) {
                 validatePaymentDate(csvCreditIndicatorRow.getPaymentDate());
             }
         } else {
-            log.error(CSVErrorType.INVALID_PAYMENT_ASAP_FORMAT.getLogMessage(), Arrays.toString(PAYMENT_ASAP_VALUES));
-            throw new CSVErrorException(CSVErrorType.INVALID_PAYMENT_ASAP_FORMAT, Arrays.toString(PAYMENT_ASAP_VALUES));
+            error(CSVErrorType.INVALID_PAYMENT_ASAP_FORMAT, Arrays.toString(PAYMENT_ASAP_VALUES));
         }
     }
 
     /**
      * Credit rows empty validation
+     *
+     * @return true when there are no credit rows
      */
-    protected void isCreditRowsEmpty() {
+    protected boolean isCreditRowsEmpty() {
         if (file.getCreditIndicatorRows().isEmpty()) {
-            log.error("{} There are no 'Credit Indicator Rows'.", CSVErrorType.INVALID_FORMAT.getLogMessage());
-            throw new CSVErrorException(CSVErrorType.INVALID_FORMAT);
+            error(CSVErrorType.INVALID_FORMAT, NO_CREDIT_ROWS);
+            return true;
         }
+        return false;
     }
 
     /**
@@ -304,12 +630,14 @@ public class CSVValidationService implements CSVValidation {
      *
      * @param obj    object to check
      * @param object identification name (section, field) to check
+     * @return true when the object is not null
      */
-    protected void checkNotNull(Object obj, String object) {
+    protected boolean checkNotNull(Object obj, String object) {
         if (obj == null) {
-            log.error("{} The '{}' is null.", CSVErrorType.INVALID_FORMAT.getLogMessage(), object);
-            throw new CSVErrorException(CSVErrorType.INVALID_FORMAT, String.format("The '%s' is null.", object));
+            error(CSVErrorType.INVALID_FORMAT, String.format("The '%s' is null.", object));
+            return false;
         }
+        return true;
     }
 
     /*
@@ -0,0 +1,245 @@
+/**
+ * Copyright 2019 ForgeRock AS.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.writer;
+
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory.CSVFilePaymentType;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory.CSVFileTypeRegistry;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVCreditIndicatorRow;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVFileLayout;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVFilePayment;
+import com.forgerock.openbanking.exceptions.OBErrorException;
+import com.forgerock.openbanking.model.error.OBRIErrorType;
+import com.google.common.base.Preconditions;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Write a payment file in the layout of its {@link CSVFilePaymentType}, see {@link CSVFileLayout}, the content parses back to the same file:<br/>
+ * <li>Every column of the layout written, the null values empty, the records padded to the credit rows width like the uploaded files</li>
+ * <li>The values without a column in the layout not written, e.g. the payment date of a FPS debit section</li>
+ * <li>The values with a separator, a quote or a line break quoted, the amounts in plain notation</li>
+ * <li>The records encoded in UTF-8 through a reusable buffer, optionally gzip compressed</li>
+ * A writer reuses its buffers from a file to the next, it is not thread safe.
+ */
+@Slf4j
+public final class CSVFilePaymentWriter {
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    // room for the longest encoded character, the encoding can't progress below
+    private static final int MIN_BUFFER_SIZE = 16;
+    private static final String LINE_SEPARATOR = "\r\n";
+
+    private final boolean gzip;
+    private final ByteBuffer bytes;
+    private final StringBuilder record = new StringBuilder(256);
+    // values appended to the record
+    private int recordColumns;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    /**
+     * @param gzip       true to compress the content with gzip
+     * @param bufferSize size in bytes of the encoding buffer, at least 16, 64KB by default
+     */
+    @Builder
+    private CSVFilePaymentWriter(final boolean gzip, final int bufferSize) {
+        Preconditions.checkArgument(bufferSize == 0 || bufferSize >= MIN_BUFFER_SIZE, "bufferSize must be at least %s: %s", MIN_BUFFER_SIZE, bufferSize);
+        this.gzip = gzip;
+        this.bytes = ByteBuffer.allocate(bufferSize > 0 ? bufferSize : DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param file payment file
+     * @param path file to write, created or truncated
+     * @throws OBErrorException type not supported
+     * @throws IOException      the file can't be written
+     */
+    public void write(CSVFilePayment file, Path path) throws OBErrorException, IOException {
+        try (WritableByteChannel channel = Files.newByteChannel(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            write(file, channel);
+        }
+    }
+
+    /**
+     * @param file payment file
+     * @param out  destination, not closed
+     * @throws OBErrorException type not supported
+     * @throws IOException      the destination failed
+     */
+    public void write(CSVFilePayment file, OutputStream out) throws OBErrorException, IOException {
+        if (gzip) {
+            GZIPOutputStream gzipOut = new GZIPOutputStream(new NonClosingOutputStream(out), bytes.capacity());
+            writeRecords(file, Channels.newChannel(gzipOut));
+            gzipOut.close();
+        } else {
+            writeRecords(file, Channels.newChannel(out));
+        }
+    }
+
+    /**
+     * @param file payment file
+     * @param out  destination, not closed
+     * @throws OBErrorException type not supported
+     * @throws IOException      the destination failed
+     */
+    public void write(CSVFilePayment file, WritableByteChannel out) throws OBErrorException, IOException {
+        if (gzip) {
+            write(file, Channels.newOutputStream(out));
+        } else {
+            writeRecords(file, out);
+        }
+    }
+
+    private void writeRecords(CSVFilePayment file, WritableByteChannel out) throws OBErrorException, IOException {
+        CSVFileLayout layout = getLayout(file.getFilePaymentType());
+        int width = layout.getWidth();
+        encoder.reset();
+        bytes.clear();
+        record.setLength(0);
+        recordColumns = 0;
+        appendRecord(file.getHeaderIndicatorSection(), layout.getHeaderColumns(), width);
+        encode(out);
+        appendRecord(file.getDebitIndicatorSection(), layout.getDebitColumns(), width);
+        encode(out);
+        for (CSVCreditIndicatorRow row : file.getCreditIndicatorRows()) {
+            appendRecord(row, layout.getCreditRowColumns(), width);
+            encode(out);
+        }
+        encoder.encode(CharBuffer.allocate(0), bytes, true);
+        encoder.flush(bytes);
+        drain(out);
+    }
+
+    private static CSVFileLayout getLayout(CSVFilePaymentType type) throws OBErrorException {
+        CSVFileLayout layout = CSVFileTypeRegistry.getProvider(type).getLayout();
+        if (layout == null) {
+            log.error(String.format(OBRIErrorType.REQUEST_MEDIA_TYPE_NOT_SUPPORTED.getMessage(), type.getFileType(), CSVFileTypeRegistry.getSupportedTypes()));
+            throw new OBErrorException(OBRIErrorType.REQUEST_MEDIA_TYPE_NOT_SUPPORTED, type.getFileType(), CSVFileTypeRegistry.getSupportedTypes());
+        }
+        return layout;
+    }
+
+    private <T> void appendRecord(T section, List<Function<T, Object>> columns, int width) {
+        for (Function<T, Object> column : columns) {
+            appendValue(column.apply(section));
+        }
+        endRecord(width);
+    }
+
+    // pad the record up to the columns, each value is followed by a separator
+    private void endRecord(int columns) {
+        for (; recordColumns < columns; recordColumns++) {
+            record.append(',');
+        }
+        record.setLength(record.length() - 1);
+        record.append(LINE_SEPARATOR);
+        recordColumns = 0;
+    }
+
+    private void appendValue(Object column) {
+        // the amounts in plain notation
+        String value = column instanceof BigDecimal ? ((BigDecimal) column).toPlainString() : column != null ? column.toString() : null;
+        if (value != null) {
+            if (needsQuotes(value)) {
+                record.append('"');
+                for (int i = 0; i < value.length(); i++) {
+                    char ch = value.charAt(i);
+                    if (ch == '"') {
+                        record.append('"');
+                    }
+                    record.append(ch);
+                }
+                record.append('"');
+            } else {
+                record.append(value);
+            }
+        }
+        record.append(',');
+        recordColumns++;
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (ch == ',' || ch == '"' || ch == '\r' || ch == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // encode the record into the buffer, draining it when full
+    private void encode(WritableByteChannel out) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(record);
+        while (encoder.encode(chars, bytes, false) == CoderResult.OVERFLOW) {
+            drain(out);
+        }
+        record.setLength(0);
+    }
+
+    private void drain(WritableByteChannel out) throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            out.write(bytes);
+        }
+        bytes.clear();
+    }
+
+    /**
+     * The gzip trailer is written by closing the gzip stream, without closing the destination
+     */
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+
+        private NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
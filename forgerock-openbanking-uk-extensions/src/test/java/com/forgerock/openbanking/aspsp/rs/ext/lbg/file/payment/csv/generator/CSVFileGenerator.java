@@ -0,0 +1,247 @@
+/**
+ * Copyright 2019 ForgeRock AS.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.generator;
+
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory.CSVFilePaymentType;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVAmounts;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation.CSVDates;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation.CSVValidation;
+import com.google.common.base.Preconditions;
+import lombok.Builder;
+import lombok.Data;
+import lombok.Singular;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic generator of synthetic payment files, the same settings and seed generate the same file:<br/>
+ * <li>The files are valid for the processing day, apart from the generated errors and the number of credit rows allowed</li>
+ * <li>The errors are drawn with their rate, per credit row or per file, see {@link CSVGeneratedError}</li>
+ * <li>The number of credit rows is either set or the rows needed to reach a size in bytes</li>
+ * The content is streamed, never held in memory: the rows are generated twice from the seed,
+ * first to sum the header values then to write them.
+ * Test support, published with the test-jar for the benchmarks.
+ */
+@Builder
+public final class CSVFileGenerator {
+    private static final String LINE_SEPARATOR = "\r\n";
+    private static final String[] NAMES = {"JOHN SMITH", "SMITH, JANE", "ACME SUPPLIES LTD", "O'NEILL & SONS",
+            "BENEFICIARY NAME", "\"QUOTED\" TRADING", "NORTHERN UTILITIES PLC", "A B PATEL"};
+    private static final String[] REFERENCES = {"INVOICE ", "SALARY ", "RENT REF-", "CONTRACTOR FEES ", "ORDER/"};
+
+    private final CSVFilePaymentType type;
+    /**
+     * Number of credit rows, 0 to generate the rows needed to reach {@link #size}
+     */
+    private final long rows;
+    /**
+     * Minimal size of the file in bytes, used when {@link #rows} is 0
+     */
+    private final long size;
+    private final long seed;
+    /**
+     * Processing day the dates are valid for, today by default
+     */
+    private final LocalDate processingDay;
+    @Singular
+    private final Map<CSVGeneratedError, Double> errorRates;
+
+    /**
+     * @param path file to write, created or truncated
+     * @return what has been written
+     * @throws IOException writing failed
+     */
+    public Summary write(final Path path) throws IOException {
+        try (OutputStream outputStream = Files.newOutputStream(path)) {
+            return write(outputStream);
+        }
+    }
+
+    /**
+     * @param outputStream stream to write the UTF-8 content, not closed
+     * @return what has been written
+     * @throws IOException writing failed
+     */
+    public Summary write(final OutputStream outputStream) throws IOException {
+        Preconditions.checkNotNull(type, "Cannot have a null file type");
+        Preconditions.checkArgument(rows > 0 || size > 0, "The number of rows or the size must be set");
+        LocalDate day = processingDay != null ? processingDay : LocalDate.now();
+        // first pass: the header values and the file errors
+        Generation sizing = new Generation(day);
+        String sections = sizing.sections(0, 0);
+        long count = 0;
+        long bytes = sections.length();
+        while (rows > 0 ? count < rows : bytes < size) {
+            bytes += sizing.nextRow().length();
+            count++;
+        }
+        // second pass: the same rows written
+        Generation generation = new Generation(day);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        sections = generation.sections(count, sizing.sum);
+        writer.write(sections);
+        bytes = sections.length();
+        for (long i = 0; i < count; i++) {
+            CharSequence row = generation.nextRow();
+            writer.append(row);
+            bytes += row.length();
+        }
+        writer.flush();
+        return new Summary(count, bytes, generation.errors);
+    }
+
+    private double rate(final CSVGeneratedError error) {
+        return errorRates.getOrDefault(error, 0d);
+    }
+
+    /**
+     * What has been written by a generator
+     */
+    @Data
+    public static final class Summary {
+        private final long rows;
+        /**
+         * Size in bytes, the content is ASCII
+         */
+        private final long bytes;
+        /**
+         * Number of errors generated, per credit row or 1 for a file error
+         */
+        private final Map<CSVGeneratedError, Long> errors;
+    }
+
+    /**
+     * One generation of the file from the seed
+     */
+    private final class Generation {
+        private final SplittableRandom random = new SplittableRandom(seed);
+        private final Map<CSVGeneratedError, Long> errors = new EnumMap<>(CSVGeneratedError.class);
+        private final StringBuilder row = new StringBuilder(128);
+        private final LocalDate day;
+        private final boolean bacs;
+        private long sum;
+        private long index;
+
+        private Generation(final LocalDate day) {
+            this.day = day;
+            this.bacs = type == CSVFilePaymentType.UK_LBG_BACS_BULK_V10;
+        }
+
+        private String sections(final long numCredits, final long creditsSum) {
+            StringBuilder sections = new StringBuilder(128);
+            BigDecimal valueCreditsSum = CSVAmounts.toBigDecimal(creditsSum, CSVAmounts.MINOR_UNITS_SCALE);
+            if (draw(CSVGeneratedError.SUM_MISMATCH)) {
+                valueCreditsSum = valueCreditsSum.add(BigDecimal.valueOf(1, CSVAmounts.MINOR_UNITS_SCALE));
+            }
+            sections.append("H,").append(CSVDates.DATE_FORMATTER.format(day)).append(",GEN").append(seed).append(',')
+                    .append(numCredits).append(',').append(valueCreditsSum.toPlainString())
+                    .append(bacs ? "," : ",,,,").append(LINE_SEPARATOR);
+            if (bacs) {
+                sections.append("D,").append(paymentDate(CSVValidation.PAYMENT_LATER_DAYS))
+                        .append(",Generated payments,301775-12345678,,").append(LINE_SEPARATOR);
+            } else {
+                sections.append("D,Generated payments,301775-12345678,,,,,,").append(LINE_SEPARATOR);
+            }
+            return sections.toString();
+        }
+
+        private CharSequence nextRow() {
+            index++;
+            row.setLength(0);
+            long amount = 1 + random.nextLong(1_000_000);
+            sum += amount;
+            int accNumber = random.nextInt(100_000_000);
+            int sortCode = random.nextInt(1_000_000);
+            row.append(draw(CSVGeneratedError.WRONG_INDICATOR) ? "X" : "C").append(',');
+            appendValue(NAMES[random.nextInt(NAMES.length)]).append(',');
+            if (bacs) {
+                appendDigits(sortCode, 6).append(',');
+                appendDigits(accNumber, 8).append(',');
+            } else {
+                appendDigits(accNumber, 8).append(',');
+                appendDigits(sortCode, 6).append(',');
+            }
+            if (draw(CSVGeneratedError.CONTRA_REFERENCE)) {
+                row.append("CONTRA ").append(index);
+            } else {
+                row.append(REFERENCES[random.nextInt(REFERENCES.length)]).append(index);
+            }
+            row.append(',').append(amount / 100).append('.');
+            appendDigits(amount % 100, 2);
+            if (!bacs) {
+                if (random.nextBoolean()) {
+                    row.append(",Y,");
+                } else {
+                    row.append(",N,").append(paymentDate(0));
+                }
+                row.append(",E2E").append(index);
+            }
+            return row.append(LINE_SEPARATOR);
+        }
+
+        // a payment date from the processing day plus the minimal days, or a bad date
+        private String paymentDate(final long minDays) {
+            if (draw(CSVGeneratedError.BAD_DATE)) {
+                return random.nextBoolean() ? CSVDates.DATE_FORMATTER.format(day.minusDays(1 + random.nextInt(30)))
+                        : day.getYear() + "-01-01";
+            }
+            long days = minDays + random.nextLong(CSVValidation.BEYOND_PAYMENT_DAYS - minDays + 1);
+            return CSVDates.DATE_FORMATTER.format(day.plusDays(days));
+        }
+
+        private StringBuilder appendDigits(final long value, final int width) {
+            for (long limit = 10, digits = 1; digits < width; limit *= 10, digits++) {
+                if (value < limit) {
+                    row.append('0');
+                }
+            }
+            return row.append(value);
+        }
+
+        private StringBuilder appendValue(final String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+                return row.append(value);
+            }
+            return row.append('"').append(value.replace("\"", "\"\"")).append('"');
+        }
+
+        private boolean draw(final CSVGeneratedError error) {
+            double rate = rate(error);
+            if (rate > 0 && random.nextDouble() < rate) {
+                errors.merge(error, 1L, Long::sum);
+                return true;
+            }
+            return false;
+        }
+    }
+}
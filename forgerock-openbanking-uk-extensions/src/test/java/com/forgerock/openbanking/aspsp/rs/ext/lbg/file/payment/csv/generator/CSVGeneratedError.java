@@ -0,0 +1,44 @@
+/**
+ * Copyright 2019 ForgeRock AS.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.generator;
+
+/**
+ * Errors generated in the payment files by {@link CSVFileGenerator}
+ */
+public enum CSVGeneratedError {
+    /**
+     * Credit row with a reference containing the word 'CONTRA', per credit row
+     */
+    CONTRA_REFERENCE,
+    /**
+     * Date in the past or not matching the date format: the credit row payment date of the FPS files, per credit row,
+     * and the debit section payment date of the BACS files, per file
+     */
+    BAD_DATE,
+    /**
+     * Header credits sum not matching with the sum of the credit rows, per file
+     */
+    SUM_MISMATCH,
+    /**
+     * Credit row indicator not 'C', per credit row
+     */
+    WRONG_INDICATOR
+}
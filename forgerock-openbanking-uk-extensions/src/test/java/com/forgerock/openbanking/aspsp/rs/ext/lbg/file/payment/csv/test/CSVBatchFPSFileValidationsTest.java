@@ -34,7 +34,10 @@ import org.springframework.http.HttpStatus;
 import uk.org.openbanking.datamodel.error.OBStandardErrorCodes1;
 
 import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -54,6 +57,7 @@ public class CSVBatchFPSFileValidationsTest extends CSVFileValidationsTest {
         );
         assertThat(error).isNull();
         assertThat(file).isNotNull();
+        resource = RESOURCES_PACK + "/Batch-FPS-file.csv";
     }
     /**
      * Parse resource file<br/>
@@ -115,6 +119,29 @@ public class CSVBatchFPSFileValidationsTest extends CSVFileValidationsTest {
         assertThat(errorException.getMessage()).isEqualTo(String.format("Date format error, parse error. The payment date '%s' cannot be beyond %d days from processing day.", date, CSVValidation.BEYOND_PAYMENT_DAYS));
     }
 
+    /**
+     * Validation credit rows: payment Date with the processing day from a fixed clock<br>
+     * <li>Rule: The payment date from processing day to 31 days later accepted</li>
+     * <li>Rule: The days beyond the month length are the last day of the month</li>
+     * <li>CSVErrorException INVALID_PAYMENT_DATE and INVALID_PAYMENT_BEYOND_DATE expected out of the window</li>
+     */
+    @Test
+    public void fps_creditsRows_paymentDateWindow_fixedClock() {
+        Clock clock = Clock.fixed(Instant.parse("2020-02-28T23:30:00Z"), ZoneOffset.UTC);
+        file.getCreditIndicatorRows().get(0).setPaymentASAP(CSVValidation.PAYMENT_ASAP_VALUES[1]);
+        for (String date : new String[]{"20200228", "20200231", "20200330"}) {
+            file.getCreditIndicatorRows().get(0).setPaymentDate(date);
+            assertThat(catchThrowableOfType(() -> new CSVBatchFPSFileValidationService(file, clock).validate(), CSVErrorException.class))
+                    .as(date).isNull();
+        }
+        file.getCreditIndicatorRows().get(0).setPaymentDate("20200227");
+        assertThat(catchThrowableOfType(() -> new CSVBatchFPSFileValidationService(file, clock).validate(), CSVErrorException.class).getCsvErrorType())
+                .isEqualTo(CSVErrorType.INVALID_PAYMENT_DATE);
+        file.getCreditIndicatorRows().get(0).setPaymentDate("20200331");
+        assertThat(catchThrowableOfType(() -> new CSVBatchFPSFileValidationService(file, clock).validate(), CSVErrorException.class).getCsvErrorType())
+                .isEqualTo(CSVErrorType.INVALID_PAYMENT_BEYOND_DATE);
+    }
+
     /**
      * Validation credit rows: payment Date<br>
      * <li>Rule: All dates in the file must match with the pattern 'yyyyMMdd'</li>
@@ -34,7 +34,10 @@ import org.springframework.http.HttpStatus;
 import uk.org.openbanking.datamodel.error.OBStandardErrorCodes1;
 
 import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -53,6 +56,7 @@ public class CSVBulkBACSFileValidationsTest extends CSVFileValidationsTest {
         );
         assertThat(error).isNull();
         assertThat(file).isNotNull();
+        resource = RESOURCES_PACK + "/Bulk-BACS-file.csv";
     }
     /**
      * Parse resource file<br/>
@@ -134,4 +138,30 @@ public class CSVBulkBACSFileValidationsTest extends CSVFileValidationsTest {
         assertThat(errorException.getMessage()).isEqualTo(String.format("Date format error, parse error. The payment date '%s' cannot be beyond %d days from processing day.", file.getDebitIndicatorSection().getPaymentDate(), CSVValidation.BEYOND_PAYMENT_DAYS));
     }
 
+    /**
+     * Validation debit section: payment Date with the processing day from a fixed clock<br>
+     * <li>Rule: The debit payment date from 2 days later to 31 days from processing day accepted</li>
+     * <li>Rule: The days beyond the month length are the last day of the month</li>
+     * <li>CSVErrorException INVALID_PAYMENT_DATE, INVALID_PAYMENT_DATE_LATER_DAYS and INVALID_PAYMENT_BEYOND_DATE expected out of the window</li>
+     */
+    @Test
+    public void bacs_debitIndicator_paymentDateWindow_fixedClock() {
+        Clock clock = Clock.fixed(Instant.parse("2020-02-28T23:30:00Z"), ZoneOffset.UTC);
+        for (String date : new String[]{"20200301", "20200330"}) {
+            file.getDebitIndicatorSection().setPaymentDate(date);
+            assertThat(catchThrowableOfType(() -> new CSVBulkBACSFileValidationService(file, clock).validate(), CSVErrorException.class))
+                    .as(date).isNull();
+        }
+        file.getDebitIndicatorSection().setPaymentDate("20200227");
+        assertThat(catchThrowableOfType(() -> new CSVBulkBACSFileValidationService(file, clock).validate(), CSVErrorException.class).getCsvErrorType())
+                .isEqualTo(CSVErrorType.INVALID_PAYMENT_DATE);
+        for (String date : new String[]{"20200229", "20200231"}) {
+            file.getDebitIndicatorSection().setPaymentDate(date);
+            assertThat(catchThrowableOfType(() -> new CSVBulkBACSFileValidationService(file, clock).validate(), CSVErrorException.class).getCsvErrorType())
+                    .as(date).isEqualTo(CSVErrorType.INVALID_PAYMENT_DATE_LATER_DAYS);
+        }
+        file.getDebitIndicatorSection().setPaymentDate("20200331");
+        assertThat(catchThrowableOfType(() -> new CSVBulkBACSFileValidationService(file, clock).validate(), CSVErrorException.class).getCsvErrorType())
+                .isEqualTo(CSVErrorType.INVALID_PAYMENT_BEYOND_DATE);
+    }
 }
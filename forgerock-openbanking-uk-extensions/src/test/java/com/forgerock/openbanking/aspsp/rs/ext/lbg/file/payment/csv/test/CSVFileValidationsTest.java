@@ -20,44 +20,100 @@
  */
 package com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.test;
 
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.async.CSVCreditRowProcessor;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.async.CSVFilePaymentAsyncProcessor;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.async.CSVValidatedFilePayment;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.cache.CSVFilePaymentCache;
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.exception.CSVErrorException;
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.exception.CSVErrorType;
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory.CSVFilePaymentFactory;
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory.CSVFilePaymentType;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory.CSVFileTypeProvider;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory.CSVFileTypeRegistry;
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory.CSVParserFactory;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.factory.CSVValidationFactory;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.generator.CSVFileGenerator;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.generator.CSVGeneratedError;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVCreditIndicatorColumns;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVAmounts;
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVCreditIndicatorRow;
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVDebitIndicatorSection;
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVFilePayment;
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.model.CSVHeaderIndicatorSection;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.parser.CSVFeedParser;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.parser.CSVParser;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.parser.CSVParserImpl;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.parser.CSVParserLimits;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.parser.CSVParserPool;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.parser.CSVRecordListener;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.pipeline.CSVFilePaymentPipeline;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.pipeline.CSVFilePaymentPipelineException;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.pipeline.InMemoryFRFilePaymentSink;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation.CSVFileValidator;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation.CSVReferenceScreener;
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation.CSVValidation;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation.CSVValidationError;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation.CSVValidationReport;
 import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.validation.CSVValidationService;
+import com.forgerock.openbanking.aspsp.rs.ext.lbg.file.payment.csv.writer.CSVFilePaymentWriter;
+import com.forgerock.openbanking.common.model.openbanking.forgerock.filepayment.v3_0.FRFilePayment;
 import com.forgerock.openbanking.exceptions.OBErrorException;
 import com.forgerock.openbanking.model.error.ErrorCode;
 import com.forgerock.openbanking.model.error.OBRIErrorType;
+import lombok.Value;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.springframework.http.HttpStatus;
 import uk.org.openbanking.datamodel.error.OBStandardErrorCodes1;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
 import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.assertj.core.api.Assertions.tuple;
 
 @Ignore
 public class CSVFileValidationsTest {
     final static String RESOURCES_PACK = "ext/lbg/file/payment/csv";
     CSVFilePayment file;
+    String resource;
 
 //    @Before
 //    public void setup() {
@@ -85,6 +141,8 @@ public class CSVFileValidationsTest {
         assertThat(errorException.getCsvErrorType().getHttpStatus()).isEqualTo(HttpStatus.BAD_REQUEST);
         assertThat(errorException.getOBError().getErrorCode()).isEqualTo(OBStandardErrorCodes1.UK_OBIE_FIELD_INVALID.getValue());
         assertThat(errorException.getMessage()).isEqualTo("The header indicator must be 'H' but found 'F'");
+        assertThat(errorException.getOBError().getMessage()).isEqualTo("The header indicator must be 'H' but found 'F'");
+        assertThat(errorException.getStackTrace()).isEmpty();
     }
 
     /**
@@ -160,6 +218,54 @@ public class CSVFileValidationsTest {
         assertThat(errorException.getMessage()).isEqualTo("The credit indicator must be 'C' but found 1 credit rows with wrong credit indicator.");
     }
 
+    /**
+     * Validation of credit rows with several errors, the rules checked in a single pass<br>
+     * <li>Errors raised in the rules order: credit indicator, reference, credit sum then payment</li>
+     */
+    @Test
+    public void generic_creditRowsErrorsPriority() {
+        file.getCreditIndicatorRows().add(CSVCreditIndicatorRow.builder().creditIndicator("F").reference("CONTRA")
+                .debitAmount(new BigDecimal("1.00")).paymentASAP("X").build());
+        file.getHeaderIndicatorSection().setNumCredits(file.getCreditIndicatorRows().size());
+        assertThat(catchThrowableOfType(() -> new CSVValidationService(file).validate(), CSVErrorException.class).getCsvErrorType())
+                .isEqualTo(CSVErrorType.INVALID_CREDIT_INDICATOR);
+
+        file.getCreditIndicatorRows().get(file.getCreditIndicatorRows().size() - 1).setCreditIndicator(CSVCreditIndicatorRow.CREDIT_IND_EXPECTED);
+        assertThat(catchThrowableOfType(() -> new CSVValidationService(file).validate(), CSVErrorException.class).getCsvErrorType())
+                .isEqualTo(CSVErrorType.INVALID_REFERENCE_FORMAT);
+
+        file.getCreditIndicatorRows().get(file.getCreditIndicatorRows().size() - 1).setReference("REFERENCE");
+        assertThat(catchThrowableOfType(() -> new CSVValidationService(file).validate(), CSVErrorException.class).getCsvErrorType())
+                .isEqualTo(CSVErrorType.INVALID_CREDIT_AMOUNT);
+
+        file.getHeaderIndicatorSection().setValueCreditsSum(file.getHeaderIndicatorSection().getValueCreditsSum().add(BigDecimal.ONE));
+        assertThat(catchThrowableOfType(() -> new CSVValidationService(file).validate(), CSVErrorException.class).getCsvErrorType())
+                .isEqualTo(CSVErrorType.INVALID_PAYMENT_ASAP_FORMAT);
+    }
+
+    /**
+     * Validation of credit rows with an error in every rule<br>
+     * <li>Only the error of the rule with the highest priority is logged and thrown</li>
+     * <li>The errors of the lower priority rules are only recorded</li>
+     */
+    @Test
+    public void generic_creditRowsErrorRaisedOnce() {
+        file.getCreditIndicatorRows().add(CSVCreditIndicatorRow.builder().creditIndicator("F").reference("CONTRA")
+                .debitAmount(new BigDecimal("1.00")).paymentASAP("X").build());
+        file.getHeaderIndicatorSection().setNumCredits(file.getCreditIndicatorRows().size());
+        List<CSVErrorType> raised = new ArrayList<>();
+        CSVValidationService validation = new CSVValidationService(file) {
+            @Override
+            protected void raise(CSVErrorType errorType, Object... args) throws CSVErrorException {
+                raised.add(errorType);
+                super.raise(errorType, args);
+            }
+        };
+        assertThat(catchThrowableOfType(validation::validate, CSVErrorException.class).getCsvErrorType())
+                .isEqualTo(CSVErrorType.INVALID_CREDIT_INDICATOR);
+        assertThat(raised).containsExactly(CSVErrorType.INVALID_CREDIT_INDICATOR);
+    }
+
     /**
      * Validation of credit indicator row value<br>
      * <li>Cannot be NULL</li>
@@ -213,6 +319,28 @@ public class CSVFileValidationsTest {
         assertThat(errorException.getMessage()).isEqualTo("Media type 'BAD_TYPE' is not supported for this request. Supported media type are 'UK.LBG.O4B.BATCH.FPS' 'UK.LBG.O4B.BULK.BACS' ");
     }
 
+    /**
+     * File types registry<br>
+     * <li>The provider of the type creates the file, the parsers and the validation of the type</li>
+     * <li>The type found from its file type, the test type not supported</li>
+     * <li>The supported types message built once</li>
+     */
+    @Test
+    public void generic_fileTypeRegistry() throws Exception {
+        CSVFilePaymentType type = file.getFilePaymentType();
+        CSVFileTypeProvider provider = CSVFileTypeRegistry.getProvider(type);
+        assertThat(provider.getType()).isEqualTo(type);
+        assertThat(provider.createFilePayment().getFilePaymentType()).isEqualTo(type);
+        assertThat(provider.createParser().getCsvFilePaymentType()).isEqualTo(type);
+        assertThat(provider.createParser(ByteBuffer.allocate(0)).getClass()).isEqualTo(provider.createParser().getClass());
+        assertThat(CSVValidationFactory.getValidationServiceInstance(file).getClass()).isEqualTo(provider.createValidation(file, Clock.systemUTC()).getClass());
+        assertThat(CSVFilePaymentType.fromStringType(type.getFileType())).isSameAs(type);
+        assertThat(CSVFileTypeRegistry.isSupported(type)).isTrue();
+        assertThat(CSVFileTypeRegistry.isSupported(CSVFilePaymentType.UK_LBG_ONLY_TEST)).isFalse();
+        assertThat(CSVFilePaymentType.getSupportedTypes()).isSameAs(CSVFilePaymentType.getSupportedTypes())
+                .isEqualTo("'UK.LBG.O4B.BATCH.FPS' 'UK.LBG.O4B.BULK.BACS' ");
+    }
+
     /**
      * Validation format, no Header<br>
      * <li>Cannot be null</li>
@@ -329,6 +457,53 @@ public class CSVFileValidationsTest {
         assertThat(errorException.getMessage()).isEqualTo(String.format("The credit amount value %s not match with the total sum amount of credit rows %s", file.getHeaderIndicatorSection().getValueCreditsSum().toPlainString(), file.getCreditRowsTotalDebitAmount()));
     }
 
+    /**
+     * Credit rows debit amount sum, accumulated in minor units<br>
+     * <li>Same sum and scale as adding the decimal amounts expected</li>
+     * <li>Amounts with more than 2 decimals and sums overflowing the minor units expected as decimal sums</li>
+     */
+    @Test
+    public void generic_sumCreditsRows_sameAsDecimalSum() {
+        List<CSVCreditIndicatorRow> rows = file.getCreditIndicatorRows();
+        rows.get(0).setDebitAmount(new BigDecimal("10"));
+        assertThat(file.getCreditRowsTotalDebitAmount()).isEqualTo(rows.stream().map(CSVCreditIndicatorRow::getDebitAmount).reduce(BigDecimal::add).get());
+        rows.get(0).setDebitAmount(new BigDecimal("0.001"));
+        assertThat(file.getCreditRowsTotalDebitAmount()).isEqualTo(rows.stream().map(CSVCreditIndicatorRow::getDebitAmount).reduce(BigDecimal::add).get());
+        IntStream.range(0, 10).forEach(i -> rows.add(CSVCreditIndicatorRow.builder().debitAmount(new BigDecimal("9999999999999999.99")).build()));
+        assertThat(file.getCreditRowsTotalDebitAmount()).isEqualTo(rows.stream().map(CSVCreditIndicatorRow::getDebitAmount).reduce(BigDecimal::add).get());
+    }
+
+    /**
+     * Credit rows debit amount decoded in minor units by the parser<br>
+     * <li>Same minor units as the decimal amount expected</li>
+     * <li>The minor units expected out of the row values: equals, hash code and string</li>
+     * <li>The minor units expected from the new amount once set</li>
+     */
+    @Test
+    public void generic_parsedDebitAmountMinorUnits() throws Exception {
+        byte[] content = getContent(getResourcePath()).getBytes(StandardCharsets.UTF_8);
+        CSVCreditIndicatorRow row = CSVParserFactory.parse(file.getFilePaymentType(), content).parse().getCsvFilePayment().getCreditIndicatorRows().get(0);
+        assertThat(row.getDebitAmountMinorUnits()).isEqualTo(CSVAmounts.toMinorUnits(row.getDebitAmount()));
+        CSVCreditIndicatorRow built = CSVCreditIndicatorRow.builder()
+                .creditIndicator(row.getCreditIndicator())
+                .recipientName(row.getRecipientName())
+                .accNumber(row.getAccNumber())
+                .recipientSortCode(row.getRecipientSortCode())
+                .reference(row.getReference())
+                .debitAmount(row.getDebitAmount())
+                .paymentASAP(row.getPaymentASAP())
+                .paymentDate(row.getPaymentDate())
+                .eToEReference(row.getEToEReference())
+                .build();
+        assertThat(row).isEqualTo(built).isEqualTo(row.copy());
+        assertThat(row.hashCode()).isEqualTo(built.hashCode());
+        assertThat(row.toString()).isEqualTo(built.toString()).doesNotContain("MinorUnits");
+        row.setDebitAmount(new BigDecimal("12.5"));
+        assertThat(row.getDebitAmountMinorUnits()).isEqualTo(1250);
+        row.setDebitAmount(new BigDecimal("0.001"));
+        assertThat(row.getDebitAmountMinorUnits()).isEqualTo(CSVAmounts.NOT_MINOR_UNITS);
+    }
+
     /**
      * Validation Date format: file creation date<br>
      * <li>Rule: All dates in the file must match with the pattern 'yyyyMMdd'</li>
@@ -367,10 +542,867 @@ public class CSVFileValidationsTest {
         assertThat(errorException.getMessage()).isEqualTo(String.format("Reference format error, parse error. Has been Found %d references that contains the word '%s'.", 1, CSVValidation.REF_WORD_TO_FIND));
     }
 
+    /**
+     * Parse resource file from a stream<br/>
+     * <li>Same result as the content parsed from a string expected</li>
+     */
+    @Test
+    public void generic_parseFromStreamNoErrors() throws Exception {
+        CSVFilePayment fromString = parseResource();
+        try (InputStream inputStream = Files.newInputStream(Paths.get(getResourcePath()))) {
+            assertSameFile(CSVParserFactory.parse(file.getFilePaymentType(), inputStream).parse().getCsvFilePayment(), fromString);
+        }
+    }
+
+    /**
+     * Parse malformed content from a stream<br/>
+     * <li>CSVErrorException INVALID_FORMAT expected for an unterminated quoted value, as from the bytes</li>
+     * <li>OBErrorException expected for a stream failing to be read</li>
+     */
+    @Test
+    public void generic_parseFromStreamMalformed() throws Exception {
+        CSVFilePaymentType type = file.getFilePaymentType();
+        byte[] unterminated = (getContent(getResourcePath()) + "C,\"unterminated").getBytes(StandardCharsets.UTF_8);
+        List<ThrowingCallable> parsers = Arrays.asList(
+                () -> CSVParserFactory.parse(type, new ByteArrayInputStream(unterminated)).parse(),
+                () -> CSVParserFactory.parse(type, unterminated).parse()
+        );
+        for (ThrowingCallable parser : parsers) {
+            assertThat(catchThrowableOfType(parser, CSVErrorException.class).getCsvErrorType()).isEqualTo(CSVErrorType.INVALID_FORMAT);
+        }
+
+        InputStream disconnected = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Connection reset");
+            }
+        };
+        assertThat(catchThrowableOfType(() -> CSVParserFactory.parse(type, disconnected).parse(), OBErrorException.class)).isNotNull();
+    }
+
+    /**
+     * Parse resource file from its bytes, tokenized without decoding the whole content<br/>
+     * <li>Same result as the content parsed from a string expected</li>
+     */
+    @Test
+    public void generic_parseFromBytesNoErrors() throws Exception {
+        byte[] content = getContent(getResourcePath()).getBytes(StandardCharsets.UTF_8);
+        assertSameFile(CSVParserFactory.parse(file.getFilePaymentType(), content).parse().getCsvFilePayment(), parseResource());
+    }
+
+    /**
+     * Parse content holding invalid UTF-8 bytes<br/>
+     * <li>The invalid bytes replaced, the same result expected from the bytes, the stream and the channel</li>
+     */
+    @Test
+    public void generic_parseMalformedCharacters() throws Exception {
+        CSVFilePaymentType type = file.getFilePaymentType();
+        byte[] valid = getContent(getResourcePath()).getBytes(StandardCharsets.UTF_8);
+        byte[] content = Arrays.copyOf(valid, valid.length);
+        // an invalid byte in the name of the first credit row
+        content[new String(valid, StandardCharsets.UTF_8).indexOf("\nC,") + 3] = (byte) 0xff;
+        CSVFilePayment fromBytes = CSVParserFactory.parse(type, content).parse().getCsvFilePayment();
+        assertThat(fromBytes.getCreditIndicatorRows().get(0).getRecipientName()).startsWith("\ufffd");
+        assertSameFile(CSVParserFactory.parse(type, new ByteArrayInputStream(content)).parse().getCsvFilePayment(), fromBytes);
+        assertSameFile(CSVParserFactory.parse(type, Channels.newChannel(new ByteArrayInputStream(content))).parse().getCsvFilePayment(), fromBytes);
+    }
+
+    /**
+     * Parse resource file mapped in memory<br/>
+     * <li>Same result as the content parsed from a string expected</li>
+     */
+    @Test
+    public void generic_parseFromPathNoErrors() throws Exception {
+        assertSameFile(CSVParserFactory.parse(file.getFilePaymentType(), Paths.get(getResourcePath())).parse().getCsvFilePayment(), parseResource());
+    }
+
+    /**
+     * Parse resource file holding the credit rows by columns<br/>
+     * <li>Same result as the content parsed from a string expected</li>
+     * <li>Validation on the columns with the same errors expected</li>
+     */
+    @Test
+    public void generic_parseColumnarNoErrors() throws Exception {
+        CSVFilePayment fromString = parseResource();
+        CSVParser parser = CSVParserFactory.parse(file.getFilePaymentType(), getContent(getResourcePath()).getBytes(StandardCharsets.UTF_8));
+        ((CSVParserImpl) parser).setColumnar(true);
+        CSVFilePayment columnar = parser.parse().getCsvFilePayment();
+        assertThat(columnar).isInstanceOf(fromString.getClass());
+        assertThat(columnar.getCreditIndicatorRows()).isInstanceOf(CSVCreditIndicatorColumns.class);
+        assertSameFile(columnar, fromString);
+        assertThat(columnar.getCreditRowsTotalDebitAmount()).isEqualTo(fromString.getCreditRowsTotalDebitAmount());
+        assertThat(columnar.toString()).isEqualTo(fromString.toString());
+        columnar.getCreditIndicatorRows().get(0).setReference("contains the word contra. Reject!");
+        fromString.getCreditIndicatorRows().get(0).setReference("contains the word contra. Reject!");
+        CSVValidationReport report = CSVValidationFactory.getValidationServiceInstance(columnar).validateAll(10);
+        assertThat(report.getErrors()).extracting(CSVValidationError::getErrorType).contains(CSVErrorType.INVALID_REFERENCE_FORMAT);
+        assertThat(report.getErrors()).isEqualTo(CSVValidationFactory.getValidationServiceInstance(fromString).validateAll(10).getErrors());
+    }
+
+    /**
+     * Parse large content with the credit rows split in chunks parsed in parallel<br/>
+     * <li>Line breaks inside quoted values, splitting records between chunks</li>
+     * <li>Same result as the content parsed sequentially expected</li>
+     * <li>Every credit row notified to the listener in the file order</li>
+     */
+    @Test
+    public void generic_parseInParallelNoErrors() throws Exception {
+        CSVFilePayment generated = generate(5000).getFile();
+        for (int i = 0; i < 5000; i += 50) {
+            generated.getCreditIndicatorRows().get(i).setReference("MULTI\nLINE \"REFERENCE\"\r\n" + i);
+        }
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        CSVFilePaymentWriter.builder().build().write(generated, written);
+        byte[] content = written.toByteArray();
+        CSVFilePayment sequential = CSVParserFactory.parse(file.getFilePaymentType(), content, CSVParserLimits.NONE).parse().getCsvFilePayment();
+        assertSameFile(sequential, generated);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<CSVCreditIndicatorRow> notified = new ArrayList<>();
+            CSVParser parser = CSVParserFactory.parse(file.getFilePaymentType(), ByteBuffer.wrap(content), pool, 0, CSVParserLimits.NONE);
+            ((CSVParserImpl) parser).setRecordListener(new CSVRecordListener() {
+                @Override
+                public void onCreditIndicatorRow(CSVCreditIndicatorRow row) {
+                    notified.add(row);
+                }
+            });
+            assertSameFile(parser.parse().getCsvFilePayment(), sequential);
+            assertThat(notified).isEqualTo(sequential.getCreditIndicatorRows());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Parse resource file pushed in small chunks<br/>
+     * <li>Same result as the content parsed from a string expected</li>
+     * <li>Every credit row notified to the listener</li>
+     */
+    @Test
+    public void generic_parseFromChunksNoErrors() throws Exception {
+        CSVFilePayment fromString = parseResource();
+        List<CSVCreditIndicatorRow> notified = new ArrayList<>();
+        CSVFeedParser feedParser = CSVParserFactory.feed(file.getFilePaymentType(), new CSVRecordListener() {
+            @Override
+            public void onCreditIndicatorRow(CSVCreditIndicatorRow row) {
+                notified.add(row);
+            }
+        });
+        byte[] content = getContent(getResourcePath()).getBytes(StandardCharsets.UTF_8);
+        for (int offset = 0; offset < content.length; offset += 3) {
+            feedParser.feed(ByteBuffer.wrap(content, offset, Math.min(3, content.length - offset)));
+        }
+        assertSameFile(feedParser.complete().getCsvFilePayment(), fromString);
+        assertThat(notified).isEqualTo(fromString.getCreditIndicatorRows());
+    }
+
+    /**
+     * Validation collecting all the errors<br>
+     * <li>The errors reported with their record number, in the order found</li>
+     * <li>The report capped to the max errors, the others counted</li>
+     * <li>CSVErrorException INVALID_HEADER_INDICATOR expected failing on the first error</li>
+     */
+    @Test
+    public void generic_validateAll_report() throws Exception {
+        CSVFilePayment generated = generate(25).getFile();
+        assertThat(CSVValidationFactory.getValidationServiceInstance(generated).validateAll(10).isValid()).isTrue();
+
+        generated.getHeaderIndicatorSection().setHeaderIndicator("X");
+        generated.getCreditIndicatorRows().get(0).setReference("CONTRA");
+        generated.getCreditIndicatorRows().get(3).setReference("contra");
+        CSVValidation validation = CSVValidationFactory.getValidationServiceInstance(generated);
+        CSVValidationReport report = validation.validateAll(10);
+        assertThat(report.isValid()).isFalse();
+        assertThat(report.isTruncated()).isFalse();
+        assertThat(report.getErrors()).extracting(CSVValidationError::getRecordNumber, CSVValidationError::getErrorType).containsExactly(
+                tuple(1L, CSVErrorType.INVALID_HEADER_INDICATOR),
+                tuple(3L, CSVErrorType.INVALID_REFERENCE_FORMAT),
+                tuple(6L, CSVErrorType.INVALID_REFERENCE_FORMAT)
+        );
+        assertThat(report.getErrors().get(1).getMessage()).isEqualTo(String.format("Reference format error, parse error. Has been Found %d references that contains the word '%s'.", 1, CSVValidation.REF_WORD_TO_FIND));
+
+        report = validation.validateAll(2);
+        assertThat(report.getErrors()).hasSize(2);
+        assertThat(report.getErrorCount()).isEqualTo(3);
+        assertThat(report.isTruncated()).isTrue();
+
+        CSVErrorException errorException = catchThrowableOfType(validation::validate, CSVErrorException.class);
+        assertThat(errorException.getCsvErrorType()).isEqualTo(CSVErrorType.INVALID_HEADER_INDICATOR);
+    }
+
+    /**
+     * Validation collecting the errors by default, validations only implementing validate<br>
+     * <li>The report holding the error of validate, about the whole file</li>
+     */
+    @Test
+    public void generic_validateAll_default() {
+        CSVValidation valid = () -> {
+        };
+        assertThat(valid.validateAll(10).isValid()).isTrue();
+        CSVValidation invalid = () -> new CSVValidationService(file).validateHeaderIndicator();
+        file.getHeaderIndicatorSection().setHeaderIndicator("X");
+        CSVValidationReport report = invalid.validateAll(10);
+        assertThat(report.getErrors()).extracting(CSVValidationError::getRecordNumber, CSVValidationError::getErrorType).containsExactly(
+                tuple(CSVValidationError.FILE_RECORD, CSVErrorType.INVALID_HEADER_INDICATOR)
+        );
+        assertThat(report.getErrors().get(0).getMessage()).isEqualTo(catchThrowableOfType(invalid::validate, CSVErrorException.class).getMessage());
+    }
+
+    /**
+     * Validator shared by the threads<br>
+     * <li>The same validator expected for the type</li>
+     * <li>The same outcome expected for every file validated concurrently</li>
+     * <li>A file of another type rejected</li>
+     */
+    @Test
+    public void generic_sharedValidator() throws Exception {
+        CSVFilePayment valid = generate(25).getFile();
+        CSVFilePayment invalid = generate(25, CSVGeneratedError.CONTRA_REFERENCE).getFile();
+        CSVFileValidator validator = CSVValidationFactory.getValidator(file.getFilePaymentType());
+        assertThat(CSVValidationFactory.getValidator(file.getFilePaymentType())).isSameAs(validator);
+        Map<CSVFilePaymentType, CSVFileValidator> clockValidators = CSVFileTypeRegistry.createValidators(Clock.systemUTC());
+        assertThat(clockValidators.get(file.getFilePaymentType())).isNotNull().isNotSameAs(validator);
+        assertThat(clockValidators.get(file.getFilePaymentType()).validateAll(valid, 10).isValid()).isTrue();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> outcomes = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                CSVFilePayment validated = i % 2 == 0 ? valid : invalid;
+                outcomes.add(executor.submit(() -> {
+                    assertThat(validator.validateAll(validated, 10).isValid()).isEqualTo(validated == valid);
+                    CSVErrorException errorException = catchThrowableOfType(() -> validator.validate(validated), CSVErrorException.class);
+                    return errorException == null ? "valid" : errorException.getMessage();
+                }));
+            }
+            for (int i = 0; i < outcomes.size(); i++) {
+                assertThat(outcomes.get(i).get()).isEqualTo(i % 2 == 0 ? "valid"
+                        : String.format("Reference format error, parse error. Has been Found %d references that contains the word '%s'.", 25, CSVValidation.REF_WORD_TO_FIND));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        CSVFilePaymentType otherType = file.getFilePaymentType() == CSVFilePaymentType.UK_LBG_FPS_BATCH_V10 ? CSVFilePaymentType.UK_LBG_BACS_BULK_V10 : CSVFilePaymentType.UK_LBG_FPS_BATCH_V10;
+        assertThat(catchThrowableOfType(() -> validator.validate(CSVFilePaymentFactory.create(otherType)), IllegalArgumentException.class)).isNotNull();
+    }
+
+    /**
+     * Pooled parsers<br>
+     * <li>The same payment file as the factory parser expected from the bytes and the string contents</li>
+     * <li>The pooled parser reused after a CSVErrorException</li>
+     * <li>The same payment files expected from the pool shared by several threads</li>
+     */
+    @Test
+    public void generic_parserPool() throws Exception {
+        Generated generated = generate(25);
+        byte[] valid = generated.getContent();
+        CSVFilePayment expected = generated.getFile();
+        CSVParserPool pool = CSVParserPool.builder().type(file.getFilePaymentType()).maxIdle(2).limits(CSVParserLimits.UPLOAD).build();
+
+        for (CSVFilePayment parsed : new CSVFilePayment[]{pool.parse(valid), pool.parse(new String(valid, StandardCharsets.UTF_8))}) {
+            assertThat(parsed).isNotSameAs(expected);
+            assertSameFile(parsed, expected);
+        }
+        CSVErrorException errorException = catchThrowableOfType(() -> pool.parse("H,\"unterminated"), CSVErrorException.class);
+        assertThat(errorException.getCsvErrorType()).isEqualTo(CSVErrorType.INVALID_FORMAT);
+        assertThat(pool.parse(valid).getCreditIndicatorRows()).isEqualTo(expected.getCreditIndicatorRows());
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<CSVFilePayment>> outcomes = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                outcomes.add(executor.submit(() -> pool.parse(ByteBuffer.wrap(valid))));
+            }
+            for (Future<CSVFilePayment> outcome : outcomes) {
+                assertThat(outcome.get().getCreditIndicatorRows()).isEqualTo(expected.getCreditIndicatorRows());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Asynchronous processing<br>
+     * <li>The payment file and its file payments expected from the bytes and the stream contents</li>
+     * <li>CSVErrorException INVALID_REFERENCE_FORMAT expected as the cause of the failure</li>
+     * <li>TimeoutException expected from a stream not read further, the thread released for the next content</li>
+     * <li>The cancelled processing of a stream stopped, the thread released for the next content</li>
+     */
+    @Test
+    public void generic_asyncProcessor() throws Exception {
+        Generated generated = generate(25);
+        byte[] valid = generated.getContent();
+        byte[] invalid = generate(25, CSVGeneratedError.CONTRA_REFERENCE).getContent();
+        CSVFilePayment expected = generated.getFile();
+
+        CSVFilePaymentAsyncProcessor processor = CSVFilePaymentAsyncProcessor.builder().limits(CSVParserLimits.UPLOAD).build();
+        for (CSVValidatedFilePayment validated : new CSVValidatedFilePayment[]{
+                processor.process(file.getFilePaymentType(), valid).get(10, TimeUnit.SECONDS),
+                processor.process(file.getFilePaymentType(), new ByteArrayInputStream(valid)).get(10, TimeUnit.SECONDS)}) {
+            assertThat(validated.getFile().getCreditIndicatorRows()).isEqualTo(expected.getCreditIndicatorRows());
+            assertThat(validated.getFilePayments()).hasSize(25);
+        }
+        ExecutionException executionException = catchThrowableOfType(
+                () -> processor.process(file.getFilePaymentType(), invalid).get(10, TimeUnit.SECONDS),
+                ExecutionException.class
+        );
+        assertThat(((CSVErrorException) executionException.getCause()).getCsvErrorType()).isEqualTo(CSVErrorType.INVALID_REFERENCE_FORMAT);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (PipedOutputStream slowClient = new PipedOutputStream(); PipedInputStream upload = new PipedInputStream(slowClient)) {
+            slowClient.write(valid, 0, 10);
+            CSVFilePaymentAsyncProcessor timed = CSVFilePaymentAsyncProcessor.builder().executor(executor).timeout(Duration.ofMillis(100)).build();
+            executionException = catchThrowableOfType(() -> timed.process(file.getFilePaymentType(), upload).get(10, TimeUnit.SECONDS), ExecutionException.class);
+            assertThat(executionException.getCause()).isInstanceOf(TimeoutException.class);
+            assertThat(timed.process(file.getFilePaymentType(), valid).get(10, TimeUnit.SECONDS).getFilePayments()).hasSize(25);
+
+            CSVFilePaymentAsyncProcessor cancellable = CSVFilePaymentAsyncProcessor.builder().executor(executor).build();
+            CountDownLatch reading = new CountDownLatch(1);
+            CompletableFuture<CSVValidatedFilePayment> cancelled = cancellable.process(file.getFilePaymentType(), new FilterInputStream(upload) {
+                @Override
+                public int read() throws IOException {
+                    awaitingContent();
+                    return super.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    awaitingContent();
+                    return super.read(b, off, len);
+                }
+
+                // the task blocks in the read of the empty pipe
+                private void awaitingContent() throws IOException {
+                    if (in.available() == 0) {
+                        reading.countDown();
+                    }
+                }
+            });
+            assertThat(reading.await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(cancelled.cancel(true)).isTrue();
+            assertThat(cancellable.process(file.getFilePaymentType(), valid).get(10, TimeUnit.SECONDS).getFilePayments()).hasSize(25);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Credit rows published from a published content<br>
+     * <li>The chunks requested as the rows are requested, the same rows as the factory parser expected</li>
+     * <li>The valid validation report completed before the subscriber</li>
+     * <li>CSVErrorException INVALID_REFERENCE_FORMAT expected from the subscriber of an invalid file, with the report</li>
+     * <li>CSVErrorException INVALID_FORMAT expected from a malformed content, the rest of the content cancelled</li>
+     */
+    @Test
+    public void generic_creditRowProcessor() throws Exception {
+        Generated generated = generate(25);
+        byte[] valid = generated.getContent();
+        byte[] invalid = generate(25, CSVGeneratedError.CONTRA_REFERENCE).getContent();
+        CSVFilePayment expected = generated.getFile();
+
+        ChunkPublisher chunks = new ChunkPublisher(valid, 16);
+        CSVCreditRowProcessor processor = CSVCreditRowProcessor.builder().type(file.getFilePaymentType()).build();
+        RowsSubscriber rows = new RowsSubscriber();
+        chunks.subscribe(processor);
+        processor.subscribe(rows);
+        rows.subscription.request(5);
+        assertThat(rows.rows).hasSize(5);
+        assertThat(chunks.requested).isLessThan(valid.length / 16 / 2);
+        rows.subscription.request(Long.MAX_VALUE);
+        assertThat(rows.rows).isEqualTo(expected.getCreditIndicatorRows());
+        assertThat(rows.error).isNull();
+        assertThat(rows.completed).isTrue();
+        assertThat(processor.getValidationReport().get().isValid()).isTrue();
+
+        processor = CSVCreditRowProcessor.builder().type(file.getFilePaymentType()).maxErrors(1).build();
+        rows = new RowsSubscriber();
+        new ChunkPublisher(invalid, 1000).subscribe(processor);
+        processor.subscribe(rows);
+        rows.subscription.request(Long.MAX_VALUE);
+        assertThat(rows.rows).hasSize(25);
+        assertThat(((CSVErrorException) rows.error).getCsvErrorType()).isEqualTo(CSVErrorType.INVALID_REFERENCE_FORMAT);
+        assertThat(processor.getValidationReport().get().getErrors()).extracting(CSVValidationError::getErrorType)
+                .containsExactly(CSVErrorType.INVALID_REFERENCE_FORMAT);
+
+        chunks = new ChunkPublisher(("H,\"a\"x\r\n" + new String(valid, StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8), 4);
+        processor = CSVCreditRowProcessor.builder().type(file.getFilePaymentType()).build();
+        rows = new RowsSubscriber();
+        chunks.subscribe(processor);
+        processor.subscribe(rows);
+        rows.subscription.request(1);
+        assertThat(((CSVErrorException) rows.error).getCsvErrorType()).isEqualTo(CSVErrorType.INVALID_FORMAT);
+        assertThat(chunks.cancelled).isTrue();
+        assertThat(chunks.position).isLessThan(valid.length);
+        assertThat(processor.getValidationReport()).isCompletedExceptionally();
+    }
+
+    /**
+     * Credit rows validated as they are parsed, not kept by the parser<br>
+     * <li>The payment file parsed without its credit rows, the rows notified as parsed</li>
+     * <li>The same report as the validation of the whole file expected, for the valid file and every error generated</li>
+     */
+    @Test
+    public void generic_validateAllByRow() throws Exception {
+        CSVFilePaymentType type = file.getFilePaymentType();
+        CSVFileValidator validator = CSVValidationFactory.getValidator(type);
+        List<Generated> generatedFiles = new ArrayList<>();
+        generatedFiles.add(generate(25));
+        for (CSVGeneratedError error : CSVGeneratedError.values()) {
+            generatedFiles.add(generate(25, error));
+        }
+        for (Generated generated : generatedFiles) {
+            CSVFilePayment whole = generated.getFile();
+            List<CSVCreditIndicatorRow> notified = new ArrayList<>();
+            CSVParserImpl parser = (CSVParserImpl) CSVParserFactory.parse(type, generated.getContent());
+            parser.setCreditRowsRetained(false);
+            parser.setRecordListener(new CSVRecordListener() {
+                @Override
+                public void onCreditIndicatorRow(CSVCreditIndicatorRow row) {
+                    notified.add(row);
+                }
+            });
+            CSVFilePayment sections = parser.parse().getCsvFilePayment();
+            assertThat(sections.getCreditIndicatorRows()).isEmpty();
+            assertThat(notified).isEqualTo(whole.getCreditIndicatorRows());
+
+            CSVValidationService.RowsValidation byRow = validator.validateAllByRow(sections, 100);
+            notified.forEach(byRow::check);
+            assertThat(byRow.complete().getErrors()).isEqualTo(validator.validateAll(whole, 100).getErrors());
+        }
+    }
+
+    /**
+     * Content published synchronously by chunks on demand
+     */
+    private static class ChunkPublisher implements Flow.Publisher<ByteBuffer> {
+        private final byte[] content;
+        private final int chunkSize;
+        private int position;
+        private long requested;
+        private boolean cancelled;
+
+        private ChunkPublisher(byte[] content, int chunkSize) {
+            this.content = content;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    for (long i = 0; i < n && !cancelled; i++) {
+                        requested++;
+                        if (position >= content.length) {
+                            cancelled = true;
+                            subscriber.onComplete();
+                            return;
+                        }
+                        int length = Math.min(chunkSize, content.length - position);
+                        ByteBuffer chunk = ByteBuffer.wrap(content, position, length);
+                        position += length;
+                        subscriber.onNext(chunk);
+                    }
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled = true;
+                }
+            });
+        }
+    }
+
+    private static class RowsSubscriber implements Flow.Subscriber<CSVCreditIndicatorRow> {
+        private final List<CSVCreditIndicatorRow> rows = new ArrayList<>();
+        private Flow.Subscription subscription;
+        private Throwable error;
+        private boolean completed;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(CSVCreditIndicatorRow row) {
+            rows.add(row);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+
+    /**
+     * Cache of the parsed files and validation outcomes<br>
+     * <li>A copy of the same file expected for the same content, unchanged by the changes made to the previous copies</li>
+     * <li>The parsed files weighed by their estimated model size</li>
+     * <li>The same CSVErrorException INVALID_REFERENCE_FORMAT expected from the cached outcome</li>
+     * <li>Only the files and outcomes asked counted in the hits and misses, not the file parsed to validate</li>
+     * <li>The least recently used entries evicted beyond the max entries</li>
+     */
+    @Test
+    public void generic_fileCache() throws Exception {
+        byte[] valid = generate(25).getContent();
+        byte[] invalid = generate(25, CSVGeneratedError.CONTRA_REFERENCE).getContent();
+        CSVFilePaymentCache cache = CSVFilePaymentCache.builder().maxEntries(3).maxWeight(1 << 20).build();
+
+        CSVFilePayment parsed = cache.parse(file.getFilePaymentType(), valid);
+        String parsedCsv = parsed.toString();
+        parsed.getHeaderIndicatorSection().setHeaderIndicator("X");
+        parsed.getCreditIndicatorRows().get(0).setReference("CONTRA");
+        parsed.getCreditIndicatorRows().clear();
+        CSVFilePayment cached = cache.parse(file.getFilePaymentType(), valid.clone());
+        assertThat(cached).isNotSameAs(parsed);
+        assertThat(cached.toString()).isEqualTo(parsedCsv);
+        cache.validate(file.getFilePaymentType(), valid);
+        CSVFilePaymentCache.Stats validStats = cache.getStats();
+        assertThat(validStats).isEqualToIgnoringGivenFields(new CSVFilePaymentCache.Stats(1, 2, 0, 2, 0), "weight");
+        // the model estimated larger than its content
+        assertThat(validStats.getWeight()).isGreaterThan(valid.length + 1);
+
+        for (int i = 0; i < 2; i++) {
+            CSVErrorException errorException = catchThrowableOfType(() -> cache.validate(file.getFilePaymentType(), invalid), CSVErrorException.class);
+            assertThat(errorException.getCsvErrorType()).isEqualTo(CSVErrorType.INVALID_REFERENCE_FORMAT);
+            assertThat(errorException.getArgs()).containsExactly(25, CSVValidation.REF_WORD_TO_FIND);
+        }
+        CSVFilePaymentCache.Stats stats = cache.getStats();
+        assertThat(stats.getHits()).isEqualTo(2);
+        assertThat(stats.getMisses()).isEqualTo(3);
+        assertThat(stats.getEntries()).isEqualTo(3);
+        assertThat(stats.getEvictions()).isEqualTo(1);
+    }
+
+    /**
+     * Conversion to file payments<br>
+     * <li>The same file payments expected from the list, the stream and the batches</li>
+     * <li>The same creation time expected for all the file payments</li>
+     */
+    @Test
+    public void generic_toFRFilePayments() {
+        List<FRFilePayment> frFilePayments = file.toFRFilePaymentList();
+        assertThat(frFilePayments).hasSize(file.getCreditIndicatorRows().size());
+        assertThat(frFilePayments).extracting(FRFilePayment::getCreated).containsOnly(frFilePayments.get(0).getCreated());
+        assertThat(file.toFRFilePayments()).usingElementComparatorIgnoringFields("created").containsExactlyElementsOf(frFilePayments);
+
+        List<Integer> batchSizes = new ArrayList<>();
+        List<FRFilePayment> batched = new ArrayList<>();
+        file.toFRFilePayments(2, batch -> {
+            batchSizes.add(batch.size());
+            batched.addAll(batch);
+        });
+        assertThat(batchSizes).allMatch(size -> size <= 2);
+        assertThat(batched).usingElementComparatorIgnoringFields("created").containsExactlyElementsOf(frFilePayments);
+    }
+
+    /**
+     * Pipeline writing the file payments by batches<br>
+     * <li>All the file payments written in order, by batches of the size set</li>
+     * <li>A failed batch written again</li>
+     * <li>CSVFilePaymentPipelineException expected for a batch failing all the attempts</li>
+     * <li>IllegalStateException expected for an executor running the writes on the caller thread</li>
+     */
+    @Test
+    public void generic_fileToSinkPipeline() throws Exception {
+        CSVFilePayment generated = generate(1000).getFile();
+        InMemoryFRFilePaymentSink sink = new InMemoryFRFilePaymentSink();
+        AtomicInteger writes = new AtomicInteger();
+        CSVFilePaymentPipeline.Summary summary = CSVFilePaymentPipeline.builder()
+                .sink(batch -> {
+                    assertThat(batch.size()).isLessThanOrEqualTo(64);
+                    if (writes.incrementAndGet() == 2) {
+                        throw new IllegalStateException("write failed");
+                    }
+                    sink.write(batch);
+                })
+                .batchSize(64)
+                .retryDelay(Duration.ofMillis(1))
+                .build()
+                .run(generated);
+        assertThat(summary.getPayments()).isEqualTo(1000);
+        assertThat(summary.getBatches()).isEqualTo(16);
+        assertThat(summary.getRetries()).isEqualTo(1);
+        assertThat(sink.getBatches()).isEqualTo(16);
+        assertThat(sink.getPayments()).usingElementComparatorIgnoringFields("created").containsExactlyElementsOf(generated.toFRFilePaymentList());
+
+        CSVFilePaymentPipelineException pipelineException = catchThrowableOfType(
+                () -> CSVFilePaymentPipeline.builder()
+                        .sink(batch -> {
+                            throw new IllegalStateException("write failed");
+                        })
+                        .maxAttempts(2)
+                        .retryDelay(Duration.ofMillis(1))
+                        .build()
+                        .run(generated),
+                CSVFilePaymentPipelineException.class
+        );
+        assertThat(pipelineException.getBatchNumber()).isEqualTo(1);
+        assertThat(pipelineException.getCause()).hasMessage("write failed");
+
+        IllegalStateException callerRuns = catchThrowableOfType(
+                () -> CSVFilePaymentPipeline.builder().sink(sink).executor(Runnable::run).build().run(generated),
+                IllegalStateException.class
+        );
+        assertThat(callerRuns).hasMessageContaining("another thread");
+        assertThat(sink.getBatches()).isEqualTo(16);
+    }
+
+    /**
+     * Payment files written back<br>
+     * <li>The same sections and credit rows expected once parsed again, plain or gzip compressed</li>
+     * <li>The values with separators and quotes quoted</li>
+     */
+    @Test
+    public void generic_writeRoundTrip() throws Exception {
+        CSVFilePayment generated = generate(200).getFile();
+        generated.getCreditIndicatorRows().get(0).setRecipientName("SMITH, \"JS\"\r\nLTD");
+        generated.getCreditIndicatorRows().get(1).setReference(null);
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        CSVFilePaymentWriter.builder().bufferSize(64).build().write(generated, plain);
+        CSVFilePayment parsed = CSVParserFactory.parse(file.getFilePaymentType(), plain.toByteArray(), CSVParserLimits.NONE).parse().getCsvFilePayment();
+        assertSameFile(parsed, generated);
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        CSVFilePaymentWriter.builder().gzip(true).build().write(generated, Channels.newChannel(compressed));
+        try (InputStream gzipContent = new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            assertThat(gzipContent.readAllBytes()).isEqualTo(plain.toByteArray());
+        }
+    }
+
+    /**
+     * Parsing limits<br>
+     * <li>Generated file within the upload limits parsed</li>
+     * <li>CSVErrorException NUMBER_CREDITS_ROWS_NOT_ALLOWED expected from the header number of credits and from the first credit row beyond the limit</li>
+     * <li>CSVErrorException PARSE_LIMIT_EXCEEDED expected for the size, the line length and the fields</li>
+     * <li>The same error expected from every parser: tokenizer, parallel tokenizer, reader and push parser</li>
+     */
+    @Test
+    public void generic_parserLimits() throws Exception {
+        byte[] allowed = generate(CSVValidation.CREDIT_ROWS_ALLOWED).getContent();
+        assertThat(CSVParserFactory.parse(file.getFilePaymentType(), ByteBuffer.wrap(allowed), CSVParserLimits.UPLOAD).parse()
+                .getCsvFilePayment().getCreditIndicatorRows()).hasSize(CSVValidation.CREDIT_ROWS_ALLOWED);
+
+        assertThat(parseWithLimits(generate(200).getContent(), CSVParserLimits.UPLOAD).getMessage())
+                .isEqualTo(String.format("The number of credit rows exceeds the %d allowed rows. Current rows = %d", CSVValidation.CREDIT_ROWS_ALLOWED, 200));
+        String allowedContent = new String(allowed, StandardCharsets.UTF_8);
+        String lastRow = allowedContent.substring(allowedContent.lastIndexOf("\r\n", allowedContent.length() - 3) + 2);
+        byte[] extraRows = (allowedContent + lastRow + lastRow).getBytes(StandardCharsets.UTF_8);
+        CSVErrorException errorException = parseWithLimits(extraRows, CSVParserLimits.UPLOAD);
+        assertThat(errorException.getCsvErrorType()).isEqualTo(CSVErrorType.NUMBER_CREDITS_ROWS_NOT_ALLOWED);
+        assertThat(errorException.getMessage())
+                .isEqualTo(String.format("The number of credit rows exceeds the %d allowed rows. Current rows = %d", CSVValidation.CREDIT_ROWS_ALLOWED, CSVValidation.CREDIT_ROWS_ALLOWED + 1));
+
+        errorException = parseWithLimits(allowed, CSVParserLimits.builder().maxBytes(allowed.length - 1).build());
+        assertThat(errorException.getCsvErrorType()).isEqualTo(CSVErrorType.PARSE_LIMIT_EXCEEDED);
+        assertThat(errorException.getCsvErrorType().getHttpStatus()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(errorException.getMessage()).isEqualTo(String.format("File format error, parse limit exceeded. The file size exceeds the %d allowed.", allowed.length - 1));
+        assertThat(parseWithLimits(allowed, CSVParserLimits.builder().maxLineLength(10).build()).getMessage())
+                .isEqualTo("File format error, parse limit exceeded. The length of the line 1 exceeds the 10 allowed.");
+        assertThat(parseWithLimits(allowed, CSVParserLimits.builder().maxFieldsPerRecord(5).build()).getMessage())
+                .isEqualTo("File format error, parse limit exceeded. The number of fields of the record 1 exceeds the 5 allowed.");
+        byte[] longQuotedLine = (allowedContent + "C,\"multi\r\nline " + "x".repeat(100) + "\"\r\n").getBytes(StandardCharsets.UTF_8);
+        assertThat(parseWithLimits(longQuotedLine, CSVParserLimits.builder().maxLineLength(100).build()).getMessage())
+                .isEqualTo(String.format("File format error, parse limit exceeded. The length of the line %d exceeds the 100 allowed.", CSVValidation.CREDIT_ROWS_ALLOWED + 4));
+    }
+
+    /**
+     * Default parsing limits<br>
+     * <li>CSVErrorException NUMBER_CREDITS_ROWS_NOT_ALLOWED expected from the header of a large file, from every upload-facing entry point</li>
+     * <li>Large file parsed by the string, bytes and mapped file entry points, the number of credit rows rejected by the validation</li>
+     * <li>CSVErrorException PARSE_LIMIT_EXCEEDED expected for a file larger than the size limit, not mapped</li>
+     */
+    @Test
+    public void generic_parserDefaultLimits() throws Exception {
+        byte[] large = generate(200).getContent();
+        CSVFilePaymentType type = file.getFilePaymentType();
+        List<ThrowingCallable> uploads = Arrays.asList(
+                () -> CSVParserFactory.parse(type, new ByteArrayInputStream(large)).parse(),
+                () -> CSVParserFactory.parse(type, Channels.newChannel(new ByteArrayInputStream(large))).parse(),
+                () -> CSVParserFactory.feed(type).feed(ByteBuffer.wrap(large)).complete(),
+                () -> CSVParserPool.builder().type(type).build().parse(large)
+        );
+        for (ThrowingCallable upload : uploads) {
+            CSVErrorException errorException = catchThrowableOfType(upload, CSVErrorException.class);
+            assertThat(errorException.getCsvErrorType()).isEqualTo(CSVErrorType.NUMBER_CREDITS_ROWS_NOT_ALLOWED);
+            assertThat(errorException.getArgs()).containsExactly((long) CSVValidation.CREDIT_ROWS_ALLOWED, 200L);
+        }
+
+        Path path = Files.createTempFile("csv-file-payment", ".csv");
+        try {
+            Files.write(path, large);
+            List<CSVParser> parsers = Arrays.asList(
+                    CSVParserFactory.parse(type, new String(large, StandardCharsets.UTF_8)),
+                    CSVParserFactory.parse(type, large),
+                    CSVParserFactory.parse(type, ByteBuffer.wrap(large), ForkJoinPool.commonPool(), 0),
+                    CSVParserFactory.parse(type, path),
+                    CSVParserFactory.parse(type, path, ForkJoinPool.commonPool(), 0)
+            );
+            for (CSVParser parser : parsers) {
+                CSVFilePayment parsed = parser.parse().getCsvFilePayment();
+                assertThat(parsed.getCreditIndicatorRows()).hasSize(200);
+                CSVErrorException errorException = catchThrowableOfType(
+                        () -> CSVValidationFactory.getValidationServiceInstance(parsed).validate(),
+                        CSVErrorException.class
+                );
+                assertThat(errorException.getCsvErrorType()).isEqualTo(CSVErrorType.NUMBER_CREDITS_ROWS_NOT_ALLOWED);
+                assertThat(errorException.getArgs()).containsExactly(CSVValidation.CREDIT_ROWS_ALLOWED, 200);
+            }
+
+            CSVErrorException errorException = catchThrowableOfType(
+                    () -> CSVParserFactory.parse(type, path, CSVParserLimits.builder().maxBytes(large.length - 1).build()),
+                    CSVErrorException.class
+            );
+            assertThat(errorException.getCsvErrorType()).isEqualTo(CSVErrorType.PARSE_LIMIT_EXCEEDED);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    private CSVErrorException parseWithLimits(byte[] content, CSVParserLimits limits) throws OBErrorException {
+        CSVFilePaymentType type = file.getFilePaymentType();
+        CSVErrorException errorException = catchThrowableOfType(
+                () -> CSVParserFactory.parse(type, ByteBuffer.wrap(content), limits).parse(),
+                CSVErrorException.class
+        );
+        assertThat(errorException).isNotNull();
+        CSVParserImpl parallel = (CSVParserImpl) CSVParserFactory.parse(type, ByteBuffer.wrap(content), limits);
+        parallel.setParallelParsing(ForkJoinPool.commonPool(), 0);
+        List<CSVErrorException> others = new ArrayList<>();
+        others.add(catchThrowableOfType(parallel::parse, CSVErrorException.class));
+        others.add(catchThrowableOfType(
+                () -> CSVParserFactory.parse(type, new ByteArrayInputStream(content), limits).parse(),
+                CSVErrorException.class
+        ));
+        others.add(catchThrowableOfType(() -> {
+            CSVFeedParser feedParser = CSVParserFactory.feed(type, null, limits);
+            for (int i = 0; i < content.length; i += 7) {
+                feedParser.feed(ByteBuffer.wrap(content, i, Math.min(7, content.length - i)));
+            }
+            feedParser.complete();
+        }, CSVErrorException.class));
+        assertThat(others).extracting(Throwable::getMessage).containsOnly(errorException.getMessage());
+        return errorException;
+    }
+
+    /**
+     * Parse the resource file of the payment type from its content as a string
+     *
+     * @return the payment file parsed
+     * @throws Exception
+     */
+    private CSVFilePayment parseResource() throws Exception {
+        return CSVParserFactory.parse(file.getFilePaymentType(), getContent(getResourcePath())).parse().getCsvFilePayment();
+    }
+
+    /**
+     * Get the path of the resource file of the payment type
+     *
+     * @return String file path
+     */
+    String getResourcePath() {
+        return CSVFileValidationsTest.class.getClassLoader().getResource(resource).getFile();
+    }
+
+    /**
+     * Assert the payment file parsed holds the same sections and credit rows as the expected one
+     *
+     * @param parsed   the payment file parsed
+     * @param expected the payment file expected
+     */
+    static void assertSameFile(CSVFilePayment parsed, CSVFilePayment expected) {
+        assertThat(parsed.getHeaderIndicatorSection()).isEqualTo(expected.getHeaderIndicatorSection());
+        assertThat(parsed.getDebitIndicatorSection()).isEqualTo(expected.getDebitIndicatorSection());
+        assertThat(parsed.getCreditIndicatorRows()).isEqualTo(expected.getCreditIndicatorRows());
+    }
+
+    /**
+     * Generate a payment file of the type, seed 7
+     *
+     * @param rows   the number of credit rows
+     * @param errors the errors generated in every credit row
+     * @return the generated content and the payment file parsed without limits
+     * @throws Exception
+     */
+    private Generated generate(int rows, CSVGeneratedError... errors) throws Exception {
+        CSVFileGenerator.CSVFileGeneratorBuilder generator = CSVFileGenerator.builder().type(file.getFilePaymentType()).rows(rows).seed(7);
+        for (CSVGeneratedError error : errors) {
+            generator.errorRate(error, 1d);
+        }
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        CSVFileGenerator.Summary summary = generator.build().write(content);
+        CSVFilePayment generated = CSVParserFactory.parse(file.getFilePaymentType(), content.toByteArray(), CSVParserLimits.NONE).parse().getCsvFilePayment();
+        return new Generated(content.toByteArray(), summary, generated);
+    }
+
+    @Value
+    private static class Generated {
+        byte[] content;
+        CSVFileGenerator.Summary summary;
+        CSVFilePayment file;
+    }
+
+    /**
+     * Reference screening without regex<br>
+     * <li>Same result as the reference pattern expected</li>
+     */
+    @Test
+    public void generic_referenceScreener_sameAsPattern() {
+        Pattern pattern = Pattern.compile(CSVValidation.REF_PATTERN, Pattern.CASE_INSENSITIVE);
+        CSVReferenceScreener screener = new CSVReferenceScreener(CSVValidation.REF_WORD_TO_FIND);
+        String[] references = {"", "CONTRA", "contra", "CoNtRa", "CONTR", "a CONTRA b", "1CONTRA2", "CONTRAS", "XCONTRA",
+                "-CONTRA", "CONTRA-", "_CONTRA_", "contractor", "CONTRACONTRA", "CONTRA CONTRA", "éCONTRAé", "CON TRA",
+                "C\u212AONTRA", "CONTRA\u0000", "[CONTRA]", "`CONTRA@", "{CONTRA}"};
+        for (String reference : references) {
+            assertThat(screener.find(reference)).as(reference).isEqualTo(pattern.matcher(reference).find());
+        }
+    }
+
+    /**
+     * Generated payment files<br>
+     * <li>Same content for the same seed expected</li>
+     * <li>Valid file without errors generated, the rows parsed as written</li>
+     * <li>CSVErrorException INVALID_REFERENCE_FORMAT expected for every row generated with a CONTRA reference</li>
+     * <li>Rows generated up to the size requested</li>
+     */
+    @Test
+    public void generic_generatedFile() throws Exception {
+        Generated generated = generate(25);
+        assertThat(generate(25).getContent()).isEqualTo(generated.getContent());
+        assertThat(generated.getSummary().getBytes()).isEqualTo(generated.getContent().length);
+        assertThat(generated.getSummary().getErrors()).isEmpty();
+        assertThat(generated.getFile().getCreditIndicatorRows()).hasSize(25);
+        assertThat(catchThrowableOfType(() -> CSVValidationFactory.getValidationServiceInstance(generated.getFile()).validate(), CSVErrorException.class)).isNull();
+
+        Generated contra = generate(25, CSVGeneratedError.CONTRA_REFERENCE);
+        assertThat(contra.getSummary().getErrors()).containsEntry(CSVGeneratedError.CONTRA_REFERENCE, 25L);
+        CSVFilePayment invalid = contra.getFile();
+        CSVErrorException errorException = catchThrowableOfType(
+                () -> CSVValidationFactory.getValidationServiceInstance(invalid).validate(),
+                CSVErrorException.class
+        );
+        assertThat(errorException.getCsvErrorType()).isEqualTo(CSVErrorType.INVALID_REFERENCE_FORMAT);
+        assertThat(errorException.getArgs()[0]).isEqualTo(25);
+
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        CSVFileGenerator.Summary summary = CSVFileGenerator.builder().type(file.getFilePaymentType()).size(100_000).seed(7).build().write(content);
+        assertThat(content.size()).isGreaterThanOrEqualTo(100_000);
+        assertThat(CSVParserFactory.parse(file.getFilePaymentType(), content.toByteArray(), CSVParserLimits.NONE).parse().getCsvFilePayment().getCreditIndicatorRows())
+                .hasSize((int) summary.getRows());
+    }
+
     @Test
-    public void generic_csvToString_noErrors(){
+    public void generic_csvToString_noErrors() throws Exception {
         file.getHeaderIndicatorSection().setHeaderIndicator("CSVTOSTRING");
         assertThat(file.toString()).containsIgnoringCase("CSVTOSTRING");
+        assertThat(file.toString()).hasLineCount(file.getCreditIndicatorRows().size() + 2);
     }
 
     /**